@@ -0,0 +1,228 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+
+import com.tremorvideo.sdk.android.videoad.TremorAdStateListener;
+import com.tremorvideo.sdk.android.videoad.TremorVideo;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans the TremorAdStateListener callbacks of the SDK out to any number of subscribers.
+ * TremorVideo.setAdStateListener only holds one listener, so the bus registers itself there and
+ * subscribers register with the bus instead.
+ *  - MAIN subscribers are called on the main thread, in the order the SDK made the callbacks
+ *  - BACKGROUND subscribers are called on the bus thread, fed through a lock-free queue, so
+ *    analytics and prefetch logic never run on the main thread
+ */
+class AdEventBus implements TremorAdStateListener {
+
+    enum Delivery { MAIN, BACKGROUND }
+
+    private static final int SDK_INITIALIZED = 0;
+    private static final int AD_START = 1;
+    private static final int AD_COMPLETE = 2;
+    private static final int AD_READY = 3;
+    private static final int AD_SKIPPED = 4;
+    private static final int AD_CLICK_THRU = 5;
+    private static final int AD_IMPRESSION = 6;
+    private static final int AD_VIDEO_START = 7;
+    private static final int AD_VIDEO_FIRST_QUARTILE = 8;
+    private static final int AD_VIDEO_MID_POINT = 9;
+    private static final int AD_VIDEO_THIRD_QUARTILE = 10;
+    private static final int AD_VIDEO_COMPLETE = 11;
+    private static final int LEFT_APP = 12;
+    private static final int SDK_DESTROYED = 13;
+
+    private static AdEventBus sInstance;
+
+    private static class Event {
+        final int type;
+        final boolean flag;
+        final int value;
+
+        Event(int type, boolean flag, int value) {
+            this.type = type;
+            this.flag = flag;
+            this.value = value;
+        }
+    }
+
+    private final CopyOnWriteArrayList<TremorAdStateListener> mMainSubscribers = new CopyOnWriteArrayList<TremorAdStateListener>();
+    private final CopyOnWriteArrayList<TremorAdStateListener> mBackgroundSubscribers = new CopyOnWriteArrayList<TremorAdStateListener>();
+    private final ConcurrentLinkedQueue<Event> mBackgroundQueue = new ConcurrentLinkedQueue<Event>();
+    private final AtomicBoolean mDrainScheduled = new AtomicBoolean();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Handler mBackgroundHandler;
+
+    private final Runnable mDrain = new Runnable() {
+        @Override
+        public void run() {
+            mDrainScheduled.set(false);
+            Event event;
+            while ((event = mBackgroundQueue.poll()) != null) {
+                for (TremorAdStateListener subscriber : mBackgroundSubscribers) {
+                    deliver(subscriber, event);
+                }
+            }
+        }
+    };
+
+    static synchronized AdEventBus get() {
+        if (sInstance == null) {
+            sInstance = new AdEventBus();
+        }
+        return sInstance;
+    }
+
+    private AdEventBus() {
+        HandlerThread thread = new HandlerThread("AdEventBus", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        mBackgroundHandler = new Handler(thread.getLooper());
+    }
+
+    void subscribe(TremorAdStateListener subscriber, Delivery delivery) {
+        if (delivery == Delivery.MAIN) {
+            mMainSubscribers.addIfAbsent(subscriber);
+        } else {
+            mBackgroundSubscribers.addIfAbsent(subscriber);
+        }
+        // the SDK drops its listener when it is destroyed, so make sure the bus is still registered
+        attach();
+    }
+
+    /**
+     * Register the bus as the SDK's listener, call it again after TremorVideo.initialize.
+     */
+    void attach() {
+        TremorVideo.setAdStateListener(this);
+    }
+
+    void unsubscribe(TremorAdStateListener subscriber) {
+        mMainSubscribers.remove(subscriber);
+        mBackgroundSubscribers.remove(subscriber);
+    }
+
+    private void publish(int type, boolean flag, int value) {
+        final Event event = new Event(type, flag, value);
+        if (!mBackgroundSubscribers.isEmpty()) {
+            mBackgroundQueue.offer(event);
+            if (mDrainScheduled.compareAndSet(false, true)) {
+                mBackgroundHandler.post(mDrain);
+            }
+        }
+        if (mMainSubscribers.isEmpty()) {
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            deliverMain(event);
+        } else {
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    deliverMain(event);
+                }
+            });
+        }
+    }
+
+    private void deliverMain(Event event) {
+        for (TremorAdStateListener subscriber : mMainSubscribers) {
+            deliver(subscriber, event);
+        }
+    }
+
+    private static void deliver(TremorAdStateListener subscriber, Event event) {
+        switch (event.type) {
+            case SDK_INITIALIZED: subscriber.sdkInitialized(); break;
+            case AD_START: subscriber.adStart(); break;
+            case AD_COMPLETE: subscriber.adComplete(event.flag, event.value); break;
+            case AD_READY: subscriber.adReady(event.flag); break;
+            case AD_SKIPPED: subscriber.adSkipped(); break;
+            case AD_CLICK_THRU: subscriber.adClickThru(); break;
+            case AD_IMPRESSION: subscriber.adImpression(); break;
+            case AD_VIDEO_START: subscriber.adVideoStart(event.value); break;
+            case AD_VIDEO_FIRST_QUARTILE: subscriber.adVideoFirstQuartile(event.value); break;
+            case AD_VIDEO_MID_POINT: subscriber.adVideoMidPoint(event.value); break;
+            case AD_VIDEO_THIRD_QUARTILE: subscriber.adVideoThirdQuartile(event.value); break;
+            case AD_VIDEO_COMPLETE: subscriber.adVideoComplete(event.value); break;
+            case LEFT_APP: subscriber.leftApp(); break;
+            case SDK_DESTROYED: subscriber.sdkDestroyed(); break;
+        }
+    }
+
+    @Override
+    public void sdkInitialized() {
+        publish(SDK_INITIALIZED, false, 0);
+    }
+
+    @Override
+    public void adStart() {
+        publish(AD_START, false, 0);
+    }
+
+    @Override
+    public void adComplete(boolean b, int i) {
+        publish(AD_COMPLETE, b, i);
+    }
+
+    @Override
+    public void adReady(boolean b) {
+        publish(AD_READY, b, 0);
+    }
+
+    @Override
+    public void adSkipped() {
+        publish(AD_SKIPPED, false, 0);
+    }
+
+    @Override
+    public void adClickThru() {
+        publish(AD_CLICK_THRU, false, 0);
+    }
+
+    @Override
+    public void adImpression() {
+        publish(AD_IMPRESSION, false, 0);
+    }
+
+    @Override
+    public void adVideoStart(int i) {
+        publish(AD_VIDEO_START, false, i);
+    }
+
+    @Override
+    public void adVideoFirstQuartile(int i) {
+        publish(AD_VIDEO_FIRST_QUARTILE, false, i);
+    }
+
+    @Override
+    public void adVideoMidPoint(int i) {
+        publish(AD_VIDEO_MID_POINT, false, i);
+    }
+
+    @Override
+    public void adVideoThirdQuartile(int i) {
+        publish(AD_VIDEO_THIRD_QUARTILE, false, i);
+    }
+
+    @Override
+    public void adVideoComplete(int i) {
+        publish(AD_VIDEO_COMPLETE, false, i);
+    }
+
+    @Override
+    public void leftApp() {
+        publish(LEFT_APP, false, 0);
+    }
+
+    @Override
+    public void sdkDestroyed() {
+        publish(SDK_DESTROYED, false, 0);
+    }
+}
@@ -0,0 +1,286 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+
+import com.tremorvideo.sdk.android.videoad.TremorAdStateListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes ad events to the results table of the demo database without blocking the caller.
+ *  - log() only appends to an in-memory buffer, it never touches the database
+ *  - A background thread commits the buffer in one transaction per batch, as soon as BATCH_SIZE
+ *    rows are waiting or BATCH_DELAY_MS after the first one
+ *  - The buffer holds at most BUFFER_CAPACITY rows, under pressure the oldest rows are dropped first
+ *  - A batch that cannot be written (disk full, database locked or corrupt) is dropped as well, the
+ *    writer thread keeps going with the next one
+ *
+ *  - Rows are tagged with the session they were logged in
+ *  - Rows older than RETENTION_MS, and the oldest rows beyond MAX_ROWS, are pruned in the
+ *    background at most once every PRUNE_INTERVAL_MS
+ *
+ *  The time of an event is taken when log() is called, not when its row is written.
+ */
+class AdEventLog {
+
+    static final String TYPE_PASS = "pass";
+    static final String TYPE_FAIL = "fail";
+    static final String TYPE_INFO = "info";
+
+    static final int BUFFER_CAPACITY = 512;
+    static final int BATCH_SIZE = 64;
+    static final long BATCH_DELAY_MS = 500;
+    static final long RETENTION_MS = 7L * 24 * 60 * 60 * 1000;
+    static final int MAX_ROWS = 20000;
+    static final long PRUNE_INTERVAL_MS = 60L * 60 * 1000;
+
+    private static final String INSERT = "INSERT INTO " + DemoDbHelper.TABLE_RESULTS + " ("
+            + DemoDbHelper.KEY_LOGTIME + ", " + DemoDbHelper.KEY_LOGEVENT + ", " + DemoDbHelper.KEY_SHORTMSG + ", "
+            + DemoDbHelper.KEY_LONGMSG + ", " + DemoDbHelper.KEY_LOGTYPE + ", " + DemoDbHelper.KEY_SESSION
+            + ") VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static AdEventLog sInstance;
+
+    private static class Row {
+        final long time;
+        final String event;
+        final String shortMsg;
+        final String longMsg;
+        final String type;
+
+        Row(long time, String event, String shortMsg, String longMsg, String type) {
+            this.time = time;
+            this.event = event;
+            this.shortMsg = shortMsg;
+            this.longMsg = longMsg;
+            this.type = type;
+        }
+    }
+
+    private final DemoDbHelper mDbHelper;
+    private final Handler mHandler;
+    private final String mSession = String.valueOf(System.currentTimeMillis());
+    private long mLastPrune;
+    private final ArrayDeque<Row> mBuffer = new ArrayDeque<Row>();
+    private boolean mWriteScheduled;
+    private int mDroppedCount;
+
+    private final Runnable mWrite = new Runnable() {
+        @Override
+        public void run() {
+            writeBatch();
+        }
+    };
+
+    /**
+     * Logs every ad event. Subscribe it to AdEventBus with BACKGROUND delivery.
+     */
+    private final TremorAdStateListener mAdStateListener = new TremorAdStateListener() {
+        @Override
+        public void sdkInitialized() {
+            log("sdkInitialized", TYPE_INFO, "SDK Initialized");
+        }
+
+        @Override
+        public void adStart() {
+            log("adStart", TYPE_INFO, "Ad Started");
+        }
+
+        @Override
+        public void adComplete(boolean b, int i) {
+            log("adComplete", TYPE_INFO, "Ad Completed: " + b + " " + i);
+        }
+
+        @Override
+        public void adReady(boolean b) {
+            log("adReady", b ? TYPE_PASS : TYPE_FAIL, "Ad Ready: " + b);
+        }
+
+        @Override
+        public void adSkipped() {
+            log("adSkipped", TYPE_INFO, "Ad Skipped");
+        }
+
+        @Override
+        public void adClickThru() {
+            log("adClickThru", TYPE_INFO, "Ad Click Thru");
+        }
+
+        @Override
+        public void adImpression() {
+            log("adImpression", TYPE_INFO, "Ad Impression");
+        }
+
+        @Override
+        public void adVideoStart(int i) {
+            log("adVideoStart", TYPE_INFO, "Video Start: " + i);
+        }
+
+        @Override
+        public void adVideoFirstQuartile(int i) {
+            log("adVideoFirstQuartile", TYPE_INFO, "Video First Quartile: " + i);
+        }
+
+        @Override
+        public void adVideoMidPoint(int i) {
+            log("adVideoMidPoint", TYPE_INFO, "Video Mid Point: " + i);
+        }
+
+        @Override
+        public void adVideoThirdQuartile(int i) {
+            log("adVideoThirdQuartile", TYPE_INFO, "Video Third Quartile: " + i);
+        }
+
+        @Override
+        public void adVideoComplete(int i) {
+            log("adVideoComplete", TYPE_INFO, "Video Complete: " + i);
+        }
+
+        @Override
+        public void leftApp() {
+            log("leftApp", TYPE_INFO, "Left App");
+        }
+
+        @Override
+        public void sdkDestroyed() {
+            log("sdkDestroyed", TYPE_INFO, "SDK Destroyed");
+        }
+    };
+
+    static synchronized AdEventLog get(Context context) {
+        if (sInstance == null) {
+            sInstance = new AdEventLog(context);
+        }
+        return sInstance;
+    }
+
+    private AdEventLog(Context context) {
+        mDbHelper = DemoDbHelper.get(context);
+        HandlerThread thread = new HandlerThread("AdEventLog", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        mHandler = new Handler(thread.getLooper());
+    }
+
+    void log(String event, String type, String shortMsg) {
+        log(event, type, shortMsg, null);
+    }
+
+    void log(String event, String type, String shortMsg, String longMsg) {
+        Row row = new Row(System.currentTimeMillis(), event, shortMsg, longMsg, type);
+        synchronized (mBuffer) {
+            if (mBuffer.size() >= BUFFER_CAPACITY) {
+                mBuffer.pollFirst();
+                mDroppedCount++;
+            }
+            mBuffer.addLast(row);
+            if (mBuffer.size() >= BATCH_SIZE) {
+                mHandler.removeCallbacks(mWrite);
+                mHandler.post(mWrite);
+                mWriteScheduled = true;
+            } else if (!mWriteScheduled) {
+                mHandler.postDelayed(mWrite, BATCH_DELAY_MS);
+                mWriteScheduled = true;
+            }
+        }
+    }
+
+    TremorAdStateListener getAdStateListener() {
+        return mAdStateListener;
+    }
+
+    /**
+     * @return the number of rows dropped because the buffer was full or their batch failed to write
+     */
+    int getDroppedCount() {
+        synchronized (mBuffer) {
+            return mDroppedCount;
+        }
+    }
+
+    private void writeBatch() {
+        List<Row> batch;
+        synchronized (mBuffer) {
+            mWriteScheduled = false;
+            int count = Math.min(mBuffer.size(), BATCH_SIZE);
+            batch = new ArrayList<Row>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(mBuffer.pollFirst());
+            }
+            if (!mBuffer.isEmpty()) {
+                mHandler.post(mWrite);
+                mWriteScheduled = true;
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        // an exception on the writer thread would take the whole process down
+        SQLiteDatabase db;
+        try {
+            db = mDbHelper.getWritableDatabase();
+            insertBatch(db, batch);
+        } catch (SQLiteException e) {
+            e.printStackTrace();
+            synchronized (mBuffer) {
+                mDroppedCount += batch.size();
+            }
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        if (mLastPrune == 0 || now - mLastPrune >= PRUNE_INTERVAL_MS) {
+            mLastPrune = now;
+            try {
+                prune(db);
+            } catch (SQLiteException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void insertBatch(SQLiteDatabase db, List<Row> batch) {
+        SQLiteStatement insert = db.compileStatement(INSERT);
+        try {
+            db.beginTransaction();
+            try {
+                for (Row row : batch) {
+                    insert.bindLong(1, row.time);
+                    insert.bindString(2, row.event);
+                    bindNullable(insert, 3, row.shortMsg);
+                    bindNullable(insert, 4, row.longMsg);
+                    insert.bindString(5, row.type);
+                    insert.bindString(6, mSession);
+                    insert.executeInsert();
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        } finally {
+            insert.close();
+        }
+    }
+
+    private void prune(SQLiteDatabase db) {
+        db.delete(DemoDbHelper.TABLE_RESULTS, DemoDbHelper.KEY_LOGTIME + " < ?",
+                new String[]{String.valueOf(System.currentTimeMillis() - RETENTION_MS)});
+        db.delete(DemoDbHelper.TABLE_RESULTS, DemoDbHelper.KEY_ROWID + " <= (SELECT MAX(" + DemoDbHelper.KEY_ROWID
+                + ") FROM " + DemoDbHelper.TABLE_RESULTS + ") - ?", new String[]{String.valueOf(MAX_ROWS)});
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+
+import java.util.HashMap;
+
+/**
+ * Keeps the ads of an AdInventory showable without polling isAdReady.
+ *  - REFRESH_LEAD_MS before an ad expires, its inventory is refreshed in the background
+ *  - The refresh only happens under good conditions: an unmetered network, a charging device or
+ *    an idle (screen off) device. Otherwise the ad is simply expired when its time comes.
+ *  - Apps ask AdInventory.timeToExpiry() instead of polling isAdReady()
+ *
+ *  Call stop() when the inventory is no longer used.
+ */
+class AdExpiryScheduler implements AdInventory.Listener {
+
+    static final long REFRESH_LEAD_MS = 2L * 60 * 1000;
+
+    private final Context mContext;
+    private final AdInventory mInventory;
+    private final ConnectivityMonitor mConnectivity;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final HashMap<String, Runnable> mScheduled = new HashMap<String, Runnable>();
+
+    AdExpiryScheduler(Context context, AdInventory inventory) {
+        mContext = context.getApplicationContext();
+        mInventory = inventory;
+        mConnectivity = ConnectivityMonitor.get(context);
+        mInventory.addListener(this);
+    }
+
+    void stop() {
+        mInventory.removeListener(this);
+        for (Runnable runnable : mScheduled.values()) {
+            mHandler.removeCallbacks(runnable);
+        }
+        mScheduled.clear();
+    }
+
+    @Override
+    public void siteReadyChanged(final String siteID, boolean ready) {
+        Runnable previous = mScheduled.remove(siteID);
+        if (previous != null) {
+            mHandler.removeCallbacks(previous);
+        }
+        if (!ready) {
+            return;
+        }
+        Runnable refresh = new Runnable() {
+            @Override
+            public void run() {
+                mScheduled.remove(siteID);
+                onExpiring(siteID);
+            }
+        };
+        mScheduled.put(siteID, refresh);
+        mHandler.postDelayed(refresh, Math.max(0, mInventory.timeToExpiry(siteID) - REFRESH_LEAD_MS));
+    }
+
+    private void onExpiring(final String siteID) {
+        if (isGoodTimeToRefresh()) {
+            try {
+                mInventory.refresh();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        // expire the ad anyway if the refresh did not renew it in time
+        Runnable expire = new Runnable() {
+            @Override
+            public void run() {
+                mScheduled.remove(siteID);
+                mInventory.expire(siteID);
+            }
+        };
+        mScheduled.put(siteID, expire);
+        mHandler.postDelayed(expire, mInventory.timeToExpiry(siteID));
+    }
+
+    private boolean isGoodTimeToRefresh() {
+        if (!mConnectivity.isConnected()) {
+            return false;
+        }
+        return !mConnectivity.isMetered() || isCharging() || isIdle();
+    }
+
+    private boolean isCharging() {
+        Intent battery = mContext.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        return battery != null && battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean isIdle() {
+        PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT_WATCH) {
+            return !powerManager.isInteractive();
+        }
+        return !powerManager.isScreenOn();
+    }
+}
@@ -0,0 +1,232 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.app.Activity;
+import android.os.SystemClock;
+
+import com.tremorvideo.sdk.android.videoad.TremorVideo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * A bounded pool of ready ads keyed by site ID. Ads are loaded for every site ID at once so that
+ * showAd can be served from the pool without waiting for a new loadAd round trip.
+ *  - fill() makes a single loadAd request covering every site ID that has an empty slot
+ *  - onAdReady() must be called from the adReady callback to refresh the slots, DemoApplication
+ *    does it for the shared inventory
+ *  - show() serves a ready ad straight from the pool and refills the slot in the background
+ *  - Each site ID keeps its own readiness state, so a site ID that fails to fill does not hide
+ *    the ads that are ready for the others. Listeners are told about every change.
+ *  - A ready ad is considered expired once it has been held for the ad TTL. timeToExpiry() tells
+ *    how long a site ID stays showable, and refresh() replaces the ads before they go stale.
+ *    The SDK still reports an expired ad as ready, so its site ID stays expired until a load
+ *    replaces the ad or the SDK drops it.
+ *  - Every load is measured by ThroughputEstimator, the SDK downloads the ad video before adReady
+ *
+ *  The TremorVideo SDK holds at most one ready ad per site ID, so the pool has one slot per site ID
+ *  and is bounded by MAX_SLOTS.
+ */
+class AdInventory {
+
+    interface Listener {
+        void siteReadyChanged(String siteID, boolean ready);
+    }
+
+    static final int MAX_SLOTS = 4;
+    static final long DEFAULT_AD_TTL_MS = 30L * 60 * 1000;
+
+    private final String[] mSiteIDs;
+    private final HashMap<String, Boolean> mSlots = new HashMap<String, Boolean>();
+    private final HashMap<String, Long> mReadyAt = new HashMap<String, Long>();
+    private final HashSet<String> mExpired = new HashSet<String>();
+    private final ArrayList<Listener> mListeners = new ArrayList<Listener>();
+    private long mAdTtlMs = DEFAULT_AD_TTL_MS;
+    private boolean mLoading;
+    private boolean mRefreshing;
+
+    AdInventory(String[] siteIDs) {
+        if (siteIDs == null || siteIDs.length == 0 || siteIDs.length > MAX_SLOTS) {
+            throw new IllegalArgumentException("AdInventory needs between 1 and " + MAX_SLOTS + " site IDs");
+        }
+        mSiteIDs = siteIDs;
+        for (String siteID : siteIDs) {
+            mSlots.put(siteID, false);
+        }
+    }
+
+    String[] getSiteIDs() {
+        return mSiteIDs;
+    }
+
+    void addListener(Listener listener) {
+        if (!mListeners.contains(listener)) {
+            mListeners.add(listener);
+        }
+    }
+
+    void removeListener(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    void setAdTtl(long adTtlMs) {
+        mAdTtlMs = adTtlMs;
+    }
+
+    long getAdTtl() {
+        return mAdTtlMs;
+    }
+
+    /**
+     * Request ads for every empty slot. Only one loadAd request is in flight at a time.
+     */
+    void fill() throws Exception {
+        if (mLoading || !TremorVideo.isInitialized() || readyCount() == mSiteIDs.length) {
+            return;
+        }
+        mLoading = true;
+        // the SDK replaces the ads of every site ID, so the load renews the expired ones too
+        mRefreshing = !mExpired.isEmpty();
+        loadAd();
+    }
+
+    private void loadAd() throws Exception {
+        ThroughputEstimator estimator = ThroughputEstimator.get();
+        if (estimator != null) {
+            estimator.loadStarted();
+        }
+        try {
+            TremorVideo.loadAd();
+        } catch (Exception e) {
+            mLoading = false;
+            mRefreshing = false;
+            if (estimator != null) {
+                estimator.loadFinished(false);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Replace the ads of every slot, including the ready ones, with fresh ads.
+     */
+    void refresh() throws Exception {
+        if (mLoading || !TremorVideo.isInitialized()) {
+            return;
+        }
+        mLoading = true;
+        mRefreshing = true;
+        loadAd();
+    }
+
+    /**
+     * Refresh every slot from the SDK. Call this from TremorAdStateListener.adReady
+     * b only tells whether the last load succeeded as a whole, so each site ID is asked separately.
+     */
+    void onAdReady(boolean b) {
+        boolean renewed = mRefreshing && b;
+        ThroughputEstimator estimator = ThroughputEstimator.get();
+        if (mLoading && estimator != null) {
+            estimator.loadFinished(b);
+        }
+        mLoading = false;
+        mRefreshing = false;
+        for (String siteID : mSiteIDs) {
+            boolean ready = TremorVideo.isAdReady(siteID);
+            if (renewed || !ready) {
+                mExpired.remove(siteID);
+            }
+            setReady(siteID, ready && !mExpired.contains(siteID), renewed);
+        }
+    }
+
+    /**
+     * @return how long the ad of siteID stays showable in milliseconds, or -1 if it has none
+     */
+    long timeToExpiry(String siteID) {
+        Long readyAt = mReadyAt.get(siteID);
+        if (readyAt == null) {
+            return -1;
+        }
+        return Math.max(0, readyAt + mAdTtlMs - SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Stop serving the ad of siteID, it has been held for too long to be shown.
+     */
+    void expire(String siteID) {
+        mExpired.add(siteID);
+        setReady(siteID, false, false);
+    }
+
+    private void setReady(String siteID, boolean ready) {
+        setReady(siteID, ready, false);
+    }
+
+    private void setReady(String siteID, boolean ready, boolean renewed) {
+        Boolean previous = mSlots.put(siteID, ready);
+        boolean changed = previous == null || previous != ready || (ready && renewed);
+        if (!changed) {
+            return;
+        }
+        if (ready) {
+            mReadyAt.put(siteID, SystemClock.elapsedRealtime());
+        } else {
+            mReadyAt.remove(siteID);
+        }
+        for (Listener listener : new ArrayList<Listener>(mListeners)) {
+            listener.siteReadyChanged(siteID, ready);
+        }
+    }
+
+    boolean isReady(String siteID) {
+        Boolean ready = mSlots.get(siteID);
+        return ready != null && ready && !mExpired.contains(siteID);
+    }
+
+    boolean isLoading() {
+        return mLoading;
+    }
+
+    int readyCount() {
+        int count = 0;
+        for (Boolean ready : mSlots.values()) {
+            if (ready) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the first site ID with a ready ad, or null if the pool is empty
+     */
+    String nextReadySiteID() {
+        for (String siteID : mSiteIDs) {
+            if (isReady(siteID)) {
+                return siteID;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Show the ready ad for siteID and refill its slot in the background.
+     * @return false if there was no ready ad for siteID
+     */
+    boolean show(Activity activity, String siteID, int requestCode) throws Exception {
+        if (!isReady(siteID)) {
+            return false;
+        }
+        setReady(siteID, false);
+        ShowAdTimer.get().showAdCalled();
+        boolean shown = TremorVideo.showAd(activity, siteID, requestCode);
+        try {
+            fill();
+        } catch (Exception e) {
+            // the ad is already playing, a failed refill must not look like a failed show
+            e.printStackTrace();
+        }
+        return shown;
+    }
+}
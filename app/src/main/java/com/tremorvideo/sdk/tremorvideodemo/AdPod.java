@@ -0,0 +1,134 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.app.Activity;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a pod of ads back to back out of an AdInventory.
+ *  - The next ad is fetched while the current one plays, because AdInventory refills a slot as
+ *    soon as its ad is shown
+ *  - When adComplete is called the next ad is shown straight from the inventory
+ *  - The gap between adComplete and the next adStart is measured for every transition
+ *
+ *  Forward the adReady, adStart and adComplete callbacks of TremorAdStateListener to the pod, once
+ *  the inventory has seen adReady.
+ */
+class AdPod {
+
+    interface Listener {
+        /**
+         * Called when an ad of the pod has started.
+         * @param gapMillis time since the previous ad completed, or -1 for the first ad
+         */
+        void podAdStarted(int index, long gapMillis);
+
+        /**
+         * Called once every ad of the pod has been shown, skipped or failed to load
+         */
+        void podComplete(List<Long> gapsMillis);
+    }
+
+    private final Activity mActivity;
+    private final AdInventory mInventory;
+    private final int mSize;
+    private final List<Long> mGaps = new ArrayList<Long>();
+    private Listener mListener;
+    private boolean mRunning;
+    private boolean mAdShowing;
+    private int mCount;
+    private long mCompletedAt;
+
+    AdPod(Activity activity, AdInventory inventory, int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pod size must be at least 1");
+        }
+        mActivity = activity;
+        mInventory = inventory;
+        mSize = size;
+    }
+
+    void setListener(Listener listener) {
+        mListener = listener;
+    }
+
+    int getSize() {
+        return mSize;
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    void start() throws Exception {
+        if (mRunning) {
+            return;
+        }
+        mRunning = true;
+        mAdShowing = false;
+        mCount = 0;
+        mCompletedAt = 0;
+        mGaps.clear();
+        next();
+    }
+
+    /**
+     * Stop the pod without showing any further ads. Ads already in the inventory are kept.
+     */
+    void cancel() {
+        mRunning = false;
+        mAdShowing = false;
+    }
+
+    void onAdReady(boolean b) throws Exception {
+        if (!mRunning || mAdShowing) {
+            return; // refilled in the background, the ad is shown after adComplete
+        }
+        if (!b) {
+            mCount++; // the ad failed to load, move on to the next one
+        }
+        next();
+    }
+
+    void onAdStart() {
+        if (!mRunning) {
+            return;
+        }
+        long gap = -1;
+        if (mCompletedAt != 0) {
+            gap = SystemClock.elapsedRealtime() - mCompletedAt;
+            mGaps.add(gap);
+        }
+        if (mListener != null) {
+            mListener.podAdStarted(mCount - 1, gap);
+        }
+    }
+
+    void onAdComplete() throws Exception {
+        if (!mRunning) {
+            return;
+        }
+        mAdShowing = false;
+        mCompletedAt = SystemClock.elapsedRealtime();
+        next();
+    }
+
+    private void next() throws Exception {
+        if (mCount >= mSize) {
+            mRunning = false;
+            if (mListener != null) {
+                mListener.podComplete(new ArrayList<Long>(mGaps));
+            }
+            return;
+        }
+        String siteID = mInventory.nextReadySiteID();
+        if (siteID != null && mInventory.show(mActivity, siteID, Activity.RESULT_OK)) {
+            mAdShowing = true;
+            mCount++;
+        } else {
+            mInventory.fill(); // wait for adReady
+        }
+    }
+}
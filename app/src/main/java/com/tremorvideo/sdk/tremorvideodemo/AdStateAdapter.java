@@ -0,0 +1,79 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import com.tremorvideo.sdk.android.videoad.TremorAdStateListener;
+
+/**
+ * An empty TremorAdStateListener, for AdEventBus subscribers that only need a few callbacks.
+ */
+class AdStateAdapter implements TremorAdStateListener {
+
+    @Override
+    public void sdkInitialized() {
+
+    }
+
+    @Override
+    public void adStart() {
+
+    }
+
+    @Override
+    public void adComplete(boolean b, int i) {
+
+    }
+
+    @Override
+    public void adReady(boolean b) {
+
+    }
+
+    @Override
+    public void adSkipped() {
+
+    }
+
+    @Override
+    public void adClickThru() {
+
+    }
+
+    @Override
+    public void adImpression() {
+
+    }
+
+    @Override
+    public void adVideoStart(int i) {
+
+    }
+
+    @Override
+    public void adVideoFirstQuartile(int i) {
+
+    }
+
+    @Override
+    public void adVideoMidPoint(int i) {
+
+    }
+
+    @Override
+    public void adVideoThirdQuartile(int i) {
+
+    }
+
+    @Override
+    public void adVideoComplete(int i) {
+
+    }
+
+    @Override
+    public void leftApp() {
+
+    }
+
+    @Override
+    public void sdkDestroyed() {
+
+    }
+}
@@ -0,0 +1,72 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One connectivity receiver for the whole application. Components register a Listener instead of
+ * each registering their own CONNECTIVITY_ACTION receiver.
+ *
+ *  Listeners are called on the main thread.
+ */
+class ConnectivityMonitor extends BroadcastReceiver {
+
+    interface Listener {
+        void connectivityChanged(boolean connected);
+    }
+
+    private static ConnectivityMonitor sInstance;
+
+    private final ConnectivityManager mConnectivityManager;
+    private final CopyOnWriteArrayList<Listener> mListeners = new CopyOnWriteArrayList<Listener>();
+    private boolean mConnected;
+
+    static synchronized ConnectivityMonitor get(Context context) {
+        if (sInstance == null) {
+            Context appContext = context.getApplicationContext();
+            sInstance = new ConnectivityMonitor(appContext);
+            appContext.registerReceiver(sInstance, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+        return sInstance;
+    }
+
+    private ConnectivityMonitor(Context context) {
+        mConnectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        mConnected = isConnected();
+    }
+
+    void addListener(Listener listener) {
+        mListeners.addIfAbsent(listener);
+    }
+
+    void removeListener(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    boolean isConnected() {
+        NetworkInfo info = mConnectivityManager.getActiveNetworkInfo();
+        return info != null && info.isConnected();
+    }
+
+    boolean isMetered() {
+        return mConnectivityManager.isActiveNetworkMetered();
+    }
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        boolean connected = isConnected();
+        if (connected == mConnected) {
+            return;
+        }
+        mConnected = connected;
+        for (Listener listener : mListeners) {
+            listener.connectivityChanged(connected);
+        }
+    }
+}
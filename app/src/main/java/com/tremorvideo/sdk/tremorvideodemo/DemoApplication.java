@@ -0,0 +1,165 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.net.http.HttpResponseCache;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.tremorvideo.sdk.android.videoad.Settings;
+import com.tremorvideo.sdk.android.videoad.TremorVideo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Owns the TremorVideo SDK for the whole process, instead of every activity initializing and
+ * destroying it.
+ *  - Ad activities attach() in onCreate and detach() in onDestroy. The first attach initializes
+ *    the SDK, later ones only bump a reference count
+ *  - The SDK is destroyed RELEASE_DELAY_MS after the last activity detached, so moving between
+ *    the ad flows keeps the ready ads, connections and warm players
+ *  - The AdInventory and its AdExpiryScheduler live here as well and are shared by the flows.
+ *    adReady is forwarded to the inventory before any activity hears about it.
+ *  - An HTTP response cache is installed for the process, see installResponseCache()
+ *
+ *  Attaching with different site IDs restarts the SDK with the new ones, but only when no other
+ *  activity is attached. Otherwise the running SDK and its site IDs are kept, so the activities
+ *  still attached do not lose their inventory.
+ */
+public class DemoApplication extends Application {
+
+    static final long RELEASE_DELAY_MS = 60000;
+    static final long HTTP_CACHE_BYTES = 10L * 1024 * 1024;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private int mAttached;
+    private String[] mSiteIDs;
+    private AdInventory mInventory;
+    private AdExpiryScheduler mExpiryScheduler;
+
+    private final AdStateAdapter mInventoryFeed = new AdStateAdapter() {
+        @Override
+        public void adReady(boolean b) {
+            if (mInventory != null) {
+                mInventory.onAdReady(b);
+            }
+        }
+    };
+
+    private final Runnable mRelease = new Runnable() {
+        @Override
+        public void run() {
+            release();
+        }
+    };
+
+    static DemoApplication get(Context context) {
+        return (DemoApplication) context.getApplicationContext();
+    }
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        installResponseCache();
+        if (BuildConfig.DEBUG) {
+            // wakes the main thread on every vsync while an ad plays, only for comparison runs
+            long begin = StartupTrace.get().begin();
+            FrameMonitor.install(this);
+            StartupTrace.get().end("FrameMonitor", begin);
+        }
+        QuartileMonitor.install(this);
+        DoubleVerifyBridge.install(this);
+        long begin = StartupTrace.get().begin();
+        ThroughputEstimator.install(this);
+        StartupTrace.get().end("ThroughputEstimator", begin);
+        WebViewWarmer.warmUp(this);
+    }
+
+    /**
+     * Install a process-wide HTTP response cache. HttpURLConnection uses it for the requests of the
+     * app and of the SDK alike, so configuration responses cost a 304 once they are cached.
+     * Opening the cache reads its journal from disk, so it is done in the background. Requests made
+     * before it is installed are not cached.
+     */
+    private void installResponseCache() {
+        final File directory = new File(getCacheDir(), "http");
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                long begin = StartupTrace.get().begin();
+                try {
+                    HttpResponseCache.install(directory, HTTP_CACHE_BYTES);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                StartupTrace.get().end("HttpResponseCache", begin);
+            }
+        });
+    }
+
+    /**
+     * Start using the SDK from activity. Call from onCreate, on the main thread.
+     * siteIDs are ignored while another activity is attached with different ones, use
+     * getInventory() for the site IDs actually in use.
+     */
+    void attach(Activity activity, String[] siteIDs, Settings settings) {
+        mHandler.removeCallbacks(mRelease);
+        mAttached++;
+        if (mSiteIDs != null && (mAttached > 1 || Arrays.equals(mSiteIDs, siteIDs))) {
+            if (TremorVideo.isInitialized()) {
+                TremorVideo.updateSettings(settings);
+            }
+            return;
+        }
+        if (mSiteIDs != null) {
+            // only this activity is attached, the others detached and the release was pending
+            release();
+        }
+        mSiteIDs = siteIDs;
+        mInventory = new AdInventory(siteIDs);
+        mExpiryScheduler = new AdExpiryScheduler(this, mInventory);
+        AdEventBus.get().subscribe(mInventoryFeed, AdEventBus.Delivery.MAIN);
+        SdkStartup.get().initialize(activity, siteIDs, settings);
+    }
+
+    /**
+     * Stop using the SDK from activity. Call from onDestroy, on the main thread.
+     */
+    void detach(Activity activity) {
+        if (mAttached == 0) {
+            return;
+        }
+        mAttached--;
+        if (mAttached == 0) {
+            mHandler.postDelayed(mRelease, RELEASE_DELAY_MS);
+        }
+    }
+
+    /**
+     * @return the ads shared by every activity, or null once the SDK has been released
+     */
+    AdInventory getInventory() {
+        return mInventory;
+    }
+
+    private void release() {
+        SdkStartup.get().cancel();
+        AdEventBus.get().unsubscribe(mInventoryFeed);
+        mExpiryScheduler.stop();
+        mExpiryScheduler = null;
+        mInventory = null;
+        mSiteIDs = null;
+
+        // End the current user session while shutting down the static instance of TremorVideo
+        TremorVideo.destroy();
+        NetworkDispatcher.get().cancelAll();
+        HttpResponseCache cache = HttpResponseCache.getInstalled();
+        if (cache != null) {
+            cache.flush();
+        }
+    }
+}
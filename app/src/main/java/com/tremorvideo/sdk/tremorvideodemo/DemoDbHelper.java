@@ -0,0 +1,85 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * The database of the demo application. It is kept apart from the "data" database of the
+ * TremorVideo SDK logger.
+ */
+class DemoDbHelper extends SQLiteOpenHelper {
+
+    static final String DATABASE_NAME = "tremordemo.db";
+    static final int DATABASE_VERSION = 5;
+
+    static final String KEY_ROWID = "_id";
+
+    // same columns as the results table of the SDK's ResultsDbAdapter, logtime is in milliseconds
+    static final String TABLE_RESULTS = "results";
+    static final String KEY_LOGTIME = "logtime";
+    static final String KEY_LOGEVENT = "logevent";
+    static final String KEY_SHORTMSG = "shortmsg";
+    static final String KEY_LONGMSG = "longmsg";
+    static final String KEY_LOGTYPE = "logtype";
+    static final String KEY_SESSION = "session";
+
+    private static final String CREATE_RESULTS = "create table " + TABLE_RESULTS + " ("
+            + KEY_ROWID + " integer primary key autoincrement, "
+            + KEY_LOGTIME + " integer not null, "
+            + KEY_LOGEVENT + " text not null, "
+            + KEY_SHORTMSG + " text, "
+            + KEY_LONGMSG + " text, "
+            + KEY_LOGTYPE + " text not null, "
+            + KEY_SESSION + " text);";
+
+    // the retention prune of AdEventLog deletes by logtime, every other index would only slow down inserts
+    private static final String[] CREATE_RESULTS_INDEXES = {
+            "create index results_logtime on " + TABLE_RESULTS + " (" + KEY_LOGTIME + ");"
+    };
+
+    private static DemoDbHelper sInstance;
+
+    static synchronized DemoDbHelper get(Context context) {
+        if (sInstance == null) {
+            sInstance = new DemoDbHelper(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    private DemoDbHelper(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL(CREATE_RESULTS);
+        createResultsIndexes(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            db.execSQL(CREATE_RESULTS);
+        } else if (oldVersion < 3) {
+            db.execSQL("alter table " + TABLE_RESULTS + " add column " + KEY_SESSION + " text;");
+        }
+        if (oldVersion < 3) {
+            createResultsIndexes(db);
+        }
+        if (oldVersion < 4) {
+            db.execSQL("drop table if exists beacons;");
+        }
+        if (oldVersion < 5) {
+            db.execSQL("drop index if exists results_logevent;");
+            db.execSQL("drop index if exists results_logtype;");
+            db.execSQL("drop index if exists results_session;");
+        }
+    }
+
+    private static void createResultsIndexes(SQLiteDatabase db) {
+        for (String createIndex : CREATE_RESULTS_INDEXES) {
+            db.execSQL(createIndex);
+        }
+    }
+}
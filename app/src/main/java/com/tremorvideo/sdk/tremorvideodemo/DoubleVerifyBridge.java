@@ -0,0 +1,113 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.v4.content.LocalBroadcastManager;
+
+/**
+ * Feeds the DoubleVerify SDK bundled in TremorVideo from the shared ConnectivityMonitor, instead of
+ * its own DVConnectivityManager receiver, which is removed from the merged manifest.
+ *  - DVConnectivityManager only turned every CONNECTIVITY_CHANGE and WIFI_STATE_CHANGED broadcast
+ *    into a local connectivity_status_changed broadcast, the bridge sends the same one
+ *  - Changes are coalesced for COALESCE_DELAY_MS, so a flapping network is reported once
+ *  - DoubleVerify only acts on regained connectivity, by sending its pending verification
+ *    requests. At most MAX_RECONNECTS_PER_WINDOW of them are reported per RECONNECT_WINDOW_MS,
+ *    one over the budget is held back until the window ends
+ *  - Nothing is reported before sdkInitialized, DoubleVerify registers its receiver while
+ *    TremorVideo initializes. The current state is reported then, and after every restart.
+ *  - Nothing is reported while the process is not running, a manifest receiver woke it up for
+ *    every network change
+ *
+ *  Install once with install(Context).
+ */
+class DoubleVerifyBridge implements ConnectivityMonitor.Listener {
+
+    static final long COALESCE_DELAY_MS = 10000;
+    static final int MAX_RECONNECTS_PER_WINDOW = 10;
+    static final long RECONNECT_WINDOW_MS = 60L * 60 * 1000;
+
+    // the local broadcast DVConnectivityManager sends
+    private static final String ACTION_STATUS_CHANGED = "connectivity_status_changed";
+    private static final String EXTRA_STATUS = "connectivity_status";
+
+    private static DoubleVerifyBridge sInstance;
+
+    private final Context mContext;
+    private final ConnectivityMonitor mConnectivity;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private boolean mInitialized;
+    private Boolean mReported;
+    private long mWindowStart = -RECONNECT_WINDOW_MS;
+    private int mReconnects;
+
+    private final Runnable mReport = new Runnable() {
+        @Override
+        public void run() {
+            report(mConnectivity.isConnected());
+        }
+    };
+
+    private final AdStateAdapter mSdkState = new AdStateAdapter() {
+        @Override
+        public void sdkInitialized() {
+            // a restarted SDK registers a new receiver that knows nothing yet
+            mInitialized = true;
+            mReported = null;
+            mHandler.removeCallbacks(mReport);
+            mHandler.post(mReport);
+        }
+
+        @Override
+        public void sdkDestroyed() {
+            mInitialized = false;
+            mHandler.removeCallbacks(mReport);
+        }
+    };
+
+    static synchronized DoubleVerifyBridge install(Context context) {
+        if (sInstance == null) {
+            sInstance = new DoubleVerifyBridge(context);
+        }
+        return sInstance;
+    }
+
+    private DoubleVerifyBridge(Context context) {
+        mContext = context.getApplicationContext();
+        mConnectivity = ConnectivityMonitor.get(context);
+        mConnectivity.addListener(this);
+        AdEventBus.get().subscribe(mSdkState, AdEventBus.Delivery.MAIN);
+    }
+
+    @Override
+    public void connectivityChanged(boolean connected) {
+        mHandler.removeCallbacks(mReport);
+        mHandler.postDelayed(mReport, COALESCE_DELAY_MS);
+    }
+
+    private void report(boolean connected) {
+        if (!mInitialized || (mReported != null && mReported == connected)) {
+            return;
+        }
+        if (connected) {
+            long now = SystemClock.elapsedRealtime();
+            if (now - mWindowStart >= RECONNECT_WINDOW_MS) {
+                mWindowStart = now;
+                mReconnects = 0;
+            }
+            if (mReconnects >= MAX_RECONNECTS_PER_WINDOW) {
+                // the pending verification requests go out when the window ends
+                mHandler.removeCallbacks(mReport);
+                mHandler.postDelayed(mReport, mWindowStart + RECONNECT_WINDOW_MS - now);
+                return;
+            }
+            mReconnects++;
+        }
+        mReported = connected;
+        Intent intent = new Intent(ACTION_STATUS_CHANGED);
+        intent.putExtra(EXTRA_STATUS, connected);
+        LocalBroadcastManager.getInstance(mContext).sendBroadcast(intent);
+    }
+}
@@ -0,0 +1,124 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.view.Choreographer;
+import android.view.WindowManager;
+
+/**
+ * Counts rendered and dropped frames while the Playvideo ad activity is on screen, so the software
+ * and the hardware accelerated rendering paths can be compared.
+ *  - The rendering path is picked at build time, see the software and hardware flavors in build.gradle
+ *  - A frame is dropped when more than one vsync interval passes between two Choreographer frames
+ *  - A frame callback is posted for every vsync while an ad plays, so DemoApplication only
+ *    installs it in debug builds
+ *
+ *  Install once with install(Application), then read the result of the last ad with getLastReport().
+ */
+class FrameMonitor implements Application.ActivityLifecycleCallbacks, Choreographer.FrameCallback {
+
+    static final String PLAYVIDEO = "com.tremorvideo.sdk.android.videoad.Playvideo";
+
+    private static FrameMonitor sInstance;
+
+    private boolean mRunning;
+    private boolean mHardwareAccelerated;
+    private long mFrameIntervalNanos;
+    private long mLastFrameNanos;
+    private int mFrames;
+    private int mDroppedFrames;
+    private String mLastReport;
+
+    static synchronized FrameMonitor install(Application application) {
+        if (sInstance == null) {
+            sInstance = new FrameMonitor();
+            application.registerActivityLifecycleCallbacks(sInstance);
+        }
+        return sInstance;
+    }
+
+    static synchronized FrameMonitor get() {
+        return sInstance;
+    }
+
+    /**
+     * @return a summary of the frames of the last ad shown, or null if no ad has been shown
+     */
+    String getLastReport() {
+        return mLastReport;
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        if (!isPlayvideo(activity) || mRunning) {
+            return;
+        }
+        float refreshRate = activity.getWindowManager().getDefaultDisplay().getRefreshRate();
+        mFrameIntervalNanos = (long) (1000000000L / (refreshRate > 0 ? refreshRate : 60f));
+        mHardwareAccelerated = (activity.getWindow().getAttributes().flags
+                & WindowManager.LayoutParams.FLAG_HARDWARE_ACCELERATED) != 0;
+        mLastFrameNanos = 0;
+        mFrames = 0;
+        mDroppedFrames = 0;
+        mRunning = true;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+        if (!isPlayvideo(activity) || !mRunning) {
+            return;
+        }
+        mRunning = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        mLastReport = (mHardwareAccelerated ? "Hardware" : "Software") + " rendering: "
+                + mFrames + " frames, " + mDroppedFrames + " dropped";
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!mRunning) {
+            return;
+        }
+        if (mLastFrameNanos != 0) {
+            long elapsed = frameTimeNanos - mLastFrameNanos;
+            long skipped = (elapsed + mFrameIntervalNanos / 2) / mFrameIntervalNanos - 1;
+            if (skipped > 0) {
+                mDroppedFrames += skipped;
+            }
+        }
+        mFrames++;
+        mLastFrameNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private static boolean isPlayvideo(Activity activity) {
+        return PLAYVIDEO.equals(activity.getClass().getName());
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+
+    }
+}
@@ -0,0 +1,355 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A dedicated, bounded dispatcher for the HTTP traffic of the application, so that it does not
+ * compete with the AsyncTask pool of the host app.
+ *  - Requests run on a small private thread pool, ad requests first, then media, then beacons
+ *  - At most MAX_REQUESTS_PER_HOST requests run against the same host, the others wait their turn
+ *    in the same priority order
+ *  - Connections are kept alive and reused by HttpURLConnection, bodies are always fully read
+ *  - A request with a BodyReader gets its body as a stream on the dispatcher thread, e.g. to parse
+ *    it while it downloads, instead of as a byte array in onResponse()
+ *  - The time it takes to read every body fetched from the network is reported to ThroughputEstimator
+ *  - Responses go through the HTTP response cache installed by DemoApplication, which honors
+ *    Cache-Control and revalidates stale entries with conditional requests
+ *  - cancelAll() drops every queued request and aborts the running ones, call it next to
+ *    TremorVideo.stop() or TremorVideo.destroy(). Cancelled requests fail with an
+ *    InterruptedIOException, so their callers can release what they hold for them
+ *
+ *  Callbacks are made on the main thread.
+ */
+class NetworkDispatcher {
+
+    enum Priority { AD_REQUEST, MEDIA, BEACON }
+
+    interface Callback {
+        /**
+         * @param body the whole body, or null if the request has a BodyReader
+         */
+        void onResponse(Request request, int code, byte[] body);
+        void onFailure(Request request, IOException e);
+    }
+
+    interface BodyReader {
+        /**
+         * Called on a dispatcher thread with the body of a response below 400, before onResponse().
+         * Whatever is left of the body is read when it returns. An exception fails the request.
+         */
+        void read(Request request, InputStream body) throws IOException;
+    }
+
+    static final int MAX_THREADS = 4;
+    static final int MAX_REQUESTS_PER_HOST = 2;
+    static final int CONNECT_TIMEOUT_MS = 10000;
+    static final int READ_TIMEOUT_MS = 15000;
+
+    // set by the platform HttpURLConnection, e.g. "CACHE 200", "CONDITIONAL_CACHE 304" or "NETWORK 200"
+    private static final String RESPONSE_SOURCE = "X-Android-Response-Source";
+
+    private static final AtomicLong sSequence = new AtomicLong();
+    private static NetworkDispatcher sInstance;
+
+    static class Request implements Comparable<Request> {
+        final URL url;
+        final Priority priority;
+        final String method;
+        final byte[] body;
+        final Map<String, String> headers = new HashMap<String, String>();
+        final Callback callback;
+        BodyReader bodyReader;
+        private final long mSequence = sSequence.getAndIncrement();
+        private volatile boolean mCancelled;
+        private volatile HttpURLConnection mConnection;
+
+        Request(URL url, Priority priority, Callback callback) {
+            this(url, priority, "GET", null, callback);
+        }
+
+        Request(URL url, Priority priority, String method, byte[] body, Callback callback) {
+            this.url = url;
+            this.priority = priority;
+            this.method = method;
+            this.body = body;
+            this.callback = callback;
+        }
+
+        void cancel() {
+            mCancelled = true;
+            HttpURLConnection connection = mConnection;
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+
+        boolean isCancelled() {
+            return mCancelled;
+        }
+
+        @Override
+        public int compareTo(Request other) {
+            int order = priority.compareTo(other.priority);
+            if (order != 0) {
+                return order;
+            }
+            return mSequence < other.mSequence ? -1 : (mSequence == other.mSequence ? 0 : 1);
+        }
+    }
+
+    private final ThreadPoolExecutor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Integer> mRunningPerHost = new HashMap<String, Integer>();
+    // ordered by Request.compareTo, so an ad request does not wait behind earlier beacons of its host
+    private final Map<String, PriorityQueue<Request>> mWaitingPerHost = new HashMap<String, PriorityQueue<Request>>();
+    private final Set<Request> mActive = new HashSet<Request>();
+
+    static synchronized NetworkDispatcher get() {
+        if (sInstance == null) {
+            sInstance = new NetworkDispatcher();
+        }
+        return sInstance;
+    }
+
+    private NetworkDispatcher() {
+        mExecutor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>());
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    void enqueue(Request request) {
+        String host = request.url.getHost();
+        synchronized (this) {
+            mActive.add(request);
+            Integer running = mRunningPerHost.get(host);
+            if (running != null && running >= MAX_REQUESTS_PER_HOST) {
+                PriorityQueue<Request> waiting = mWaitingPerHost.get(host);
+                if (waiting == null) {
+                    waiting = new PriorityQueue<Request>();
+                    mWaitingPerHost.put(host, waiting);
+                }
+                waiting.add(request);
+                return;
+            }
+            mRunningPerHost.put(host, running == null ? 1 : running + 1);
+        }
+        mExecutor.execute(new Task(request));
+    }
+
+    /**
+     * Drop every queued request and abort the running ones. Their onFailure() is called with an
+     * InterruptedIOException, whatever the outcome of the aborted connection was.
+     * Queued requests still pass through the pool once, so the per-host counts stay consistent.
+     */
+    void cancelAll() {
+        synchronized (this) {
+            for (Request request : mActive) {
+                request.cancel();
+            }
+            mActive.clear();
+        }
+    }
+
+    private void finished(Request request) {
+        String host = request.url.getHost();
+        Request next = null;
+        synchronized (this) {
+            mActive.remove(request);
+            PriorityQueue<Request> waiting = mWaitingPerHost.get(host);
+            if (waiting != null) {
+                next = waiting.poll();
+                if (waiting.isEmpty()) {
+                    mWaitingPerHost.remove(host);
+                }
+            }
+            if (next == null) {
+                Integer running = mRunningPerHost.get(host);
+                if (running == null || running <= 1) {
+                    mRunningPerHost.remove(host);
+                } else {
+                    mRunningPerHost.put(host, running - 1);
+                }
+            }
+        }
+        if (next != null) {
+            mExecutor.execute(new Task(next));
+        }
+    }
+
+    /**
+     * Runs a request on the calling thread. The connection is left open for reuse.
+     */
+    static byte[] execute(Request request, int[] code) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) request.url.openConnection();
+        request.mConnection = connection;
+        try {
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setRequestMethod(request.method);
+            for (Map.Entry<String, String> header : request.headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (request.body != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(request.body.length);
+                OutputStream out = connection.getOutputStream();
+                try {
+                    out.write(request.body);
+                } finally {
+                    out.close();
+                }
+            }
+            code[0] = connection.getResponseCode();
+            InputStream in = code[0] >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (in == null) {
+                return new byte[0];
+            }
+            CountingInputStream counted = new CountingInputStream(in);
+            try {
+                long start = SystemClock.elapsedRealtime();
+                byte[] body = null;
+                if (request.bodyReader != null && code[0] < 400) {
+                    request.bodyReader.read(request, counted);
+                    skipFully(counted);
+                } else {
+                    body = readFully(counted);
+                }
+                ThroughputEstimator estimator = ThroughputEstimator.get();
+                String source = connection.getHeaderField(RESPONSE_SOURCE);
+                if (estimator != null && (source == null || source.startsWith("NETWORK"))) {
+                    estimator.record(counted.mCount, SystemClock.elapsedRealtime() - start);
+                }
+                return body;
+            } finally {
+                counted.close();
+            }
+        } finally {
+            request.mConnection = null;
+        }
+    }
+
+    static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void skipFully(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (in.read(buffer) != -1) {
+            // the connection can only be reused once its body is consumed
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long mCount;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                mCount++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int count) throws IOException {
+            int read = super.read(buffer, offset, count);
+            if (read > 0) {
+                mCount += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            mCount += skipped;
+            return skipped;
+        }
+    }
+
+    private class Task implements Runnable, Comparable<Task> {
+        final Request mRequest;
+
+        Task(Request request) {
+            mRequest = request;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (mRequest.isCancelled()) {
+                    deliver(0, null, null);
+                    return;
+                }
+                final int[] code = new int[1];
+                byte[] body = null;
+                IOException error = null;
+                try {
+                    body = execute(mRequest, code);
+                } catch (IOException e) {
+                    error = e;
+                } catch (RuntimeException e) {
+                    // e.g. a ClassCastException for a non-http url, or a SecurityException
+                    error = new IOException("Request to " + mRequest.url + " failed", e);
+                }
+                deliver(code[0], body, error);
+            } finally {
+                finished(mRequest);
+            }
+        }
+
+        private void deliver(final int code, final byte[] body, final IOException error) {
+            if (mRequest.callback == null) {
+                return;
+            }
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (mRequest.isCancelled()) {
+                        mRequest.callback.onFailure(mRequest, new InterruptedIOException("Request cancelled"));
+                    } else if (error != null) {
+                        mRequest.callback.onFailure(mRequest, error);
+                    } else {
+                        mRequest.callback.onResponse(mRequest, code, body);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            return mRequest.compareTo(other.mRequest);
+        }
+    }
+}
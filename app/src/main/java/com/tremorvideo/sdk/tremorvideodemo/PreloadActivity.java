@@ -22,14 +22,16 @@ import com.tremorvideo.sdk.android.videoad.TremorVideo;
 /**
  * This Activity demonstrates the "Preload in Background" ad flow. Preload ad allows the application
  * to pre-fetech an ad in the background and the ad will be instantly played when showAd is called.
- *  - The application makes an ad request by calling loadAd.
- *  - When the application is ready to show an Ad, check if an ad is ready by using isAdReady method
- *  - If an ad is ready, the application can call showAd to show the ad
+ *  - The application makes an ad request for all of its site IDs by filling an AdInventory.
+ *  - Each site ID reports its own readiness, so a slow site ID does not hold back the others
+ *  - When the application is ready to show an Ad, check if an ad is ready by using isReady method
+ *  - If an ad is ready, the application can call show to show the ad
+ *  - An AdExpiryScheduler refreshes a preloaded ad shortly before it expires, so it stays showable
  *
  *  For more details about SDK API and Integration, please visit
  *  https://github.com/TremorVideoMobile/TremorVideo-Android-SDK
  */
-public class PreloadActivity extends AppCompatActivity implements TremorAdStateListener {
+public class PreloadActivity extends AppCompatActivity implements TremorAdStateListener, AdInventory.Listener {
 
     private static final int PERMISSION_REQUEST_CODE = 0x1111;
     private Activity mActivity;
@@ -37,6 +39,7 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
     private TextView mTextView;
     private Button mShowAdButton;
     private ScrollView mScrollView;
+    private AdInventory mInventory;
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -50,8 +53,7 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
 
         mScrollView = (ScrollView) findViewById(R.id.scrollView);
         mTextView = (TextView) findViewById(R.id.logMessageTextView);
-        String siteID = intent.getStringExtra(TremorListActivity.SITE_ID);
-        TremorVideo.initialize(this, siteID);
+        String[] siteIDs = intent.getStringArrayExtra(TremorListActivity.SITE_IDS);
 
         // Set information about our content and user
         Settings settings = new Settings();
@@ -60,9 +62,14 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
         settings.userZip = "10001";
         settings.maxAdTimeSeconds = 60;
         settings.userGender = Settings.Gender.Male;
-        TremorVideo.updateSettings(settings);
 
-        TremorVideo.setAdStateListener(this);
+        /** attach to the process-wide TremorVideo, the first activity to attach initializes it */
+        DemoApplication.get(this).attach(this, siteIDs, settings);
+        mInventory = DemoApplication.get(this).getInventory();
+        mInventory.addListener(this);
+
+        AdEventBus.get().subscribe(this, AdEventBus.Delivery.MAIN);
+        AdEventBus.get().subscribe(AdEventLog.get(this).getAdStateListener(), AdEventBus.Delivery.BACKGROUND);
 
         final Button loadAdButton = (Button) findViewById(R.id.loadAd);
         if(loadAdButton != null) {
@@ -70,8 +77,8 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
                 public void onClick(View v) {
                     try {
                         if (TremorVideo.isInitialized()) {
-                            /** To request an ad, call loadAd */
-                            TremorVideo.loadAd();
+                            /** To request an ad for every site ID, fill the inventory */
+                            mInventory.fill();
                             mTextView.append("Loading\n");
                             mScrollView.fullScroll(View.FOCUS_DOWN);
                         }
@@ -91,10 +98,11 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
 
             mShowAdButton.setOnClickListener(new View.OnClickListener() {
                 public void onClick(View v) {
-                if (TremorVideo.isAdReady()) {
+                String siteID = mInventory.nextReadySiteID();
+                if (siteID != null) {
                     try {
-                        /** Call showAd any time after adReady(true) has been called */
-                        TremorVideo.showAd(PreloadActivity.this, RESULT_OK);
+                        /** Call show any time after the site ID has been reported ready */
+                        mInventory.show(PreloadActivity.this, siteID, RESULT_OK);
                     } catch (Exception e) {
                         e.printStackTrace();
                     }
@@ -118,8 +126,11 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
     protected void onDestroy() {
         super.onDestroy();
 
-        // End the current user session while shutting down the static instance of TremorVideo
-        TremorVideo.destroy();
+        AdEventBus.get().unsubscribe(this);
+        mInventory.removeListener(this);
+
+        // the SDK outlives the activity, DemoApplication shuts it down once no flow uses it
+        DemoApplication.get(this).detach(this);
     }
 
     @Override
@@ -144,7 +155,8 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
 
     @Override
     public void sdkInitialized() {
-
+        mTextView.append(StartupTrace.get().getReport() + "\n");
+        mScrollView.fullScroll(View.FOCUS_DOWN);
     }
 
     /**
@@ -182,6 +194,19 @@ public class PreloadActivity extends AppCompatActivity implements TremorAdStateL
         mScrollView.fullScroll(View.FOCUS_DOWN);
     }
 
+    /**
+     * This AdInventory callback is made whenever a single site ID gets or loses a ready ad
+     */
+    @Override
+    public void siteReadyChanged(String siteID, boolean ready) {
+        mTextView.append("Site " + siteID + " Ready: " + ready);
+        if (ready) {
+            mTextView.append(", expires in " + mInventory.timeToExpiry(siteID) / 1000 + "s");
+        }
+        mTextView.append("\n");
+        mScrollView.fullScroll(View.FOCUS_DOWN);
+    }
+
     /**
      * If the user skips an ad, this TremorAdStateListener method is called
      */
@@ -0,0 +1,148 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.app.Application;
+
+import com.tremorvideo.sdk.android.videoad.TremorVideo;
+
+/**
+ * Checks the quartile callbacks of every ad video against the position of the player, so the
+ * quartile beacons of the SDK can be reconciled with the ad server.
+ *  - At every quartile callback the playhead of the SDK player is read and compared with its share
+ *    of the ad duration, so stalls, buffering and pauses do not count as skew
+ *  - The skews are reported at adVideoComplete
+ *  - A quartile that fires twice or not at all is reported as well
+ *  - Every report is written to AdEventLog, as a failure when a skew exceeds MAX_SKEW_MS
+ *  - The SDK only tells the playhead while it reports an ad as ready, a quartile without one is
+ *    reported as unknown and does not fail the report
+ *
+ *  Install once with install(Application), then read the result of the last ad with getLastReport().
+ */
+class QuartileMonitor extends AdStateAdapter {
+
+    static final long MAX_SKEW_MS = 250;
+
+    private static final String[] QUARTILES = { "25%", "50%", "75%" };
+    private static final long NOT_FIRED = Long.MIN_VALUE;
+    private static final long UNKNOWN = Long.MAX_VALUE;
+
+    private static QuartileMonitor sInstance;
+
+    private final Application mApplication;
+    // the skew of every quartile in ms, NOT_FIRED or UNKNOWN
+    private final long[] mSkew = new long[QUARTILES.length];
+    private boolean mRunning;
+    private long mDuration;
+    private int mDuplicates;
+    private String mLastReport;
+
+    static synchronized QuartileMonitor install(Application application) {
+        if (sInstance == null) {
+            sInstance = new QuartileMonitor(application);
+            AdEventBus.get().subscribe(sInstance, AdEventBus.Delivery.MAIN);
+        }
+        return sInstance;
+    }
+
+    static synchronized QuartileMonitor get() {
+        return sInstance;
+    }
+
+    private QuartileMonitor(Application application) {
+        mApplication = application;
+    }
+
+    /**
+     * @return the quartile skews of the last ad video played to the end, or null if there is none
+     */
+    String getLastReport() {
+        return mLastReport;
+    }
+
+    @Override
+    public void adVideoStart(int i) {
+        mRunning = true;
+        mDuration = -1;
+        mDuplicates = 0;
+        for (int q = 0; q < mSkew.length; q++) {
+            mSkew[q] = NOT_FIRED;
+        }
+    }
+
+    @Override
+    public void adVideoFirstQuartile(int i) {
+        quartile(0);
+    }
+
+    @Override
+    public void adVideoMidPoint(int i) {
+        quartile(1);
+    }
+
+    @Override
+    public void adVideoThirdQuartile(int i) {
+        quartile(2);
+    }
+
+    @Override
+    public void adVideoComplete(int i) {
+        if (mRunning) {
+            mRunning = false;
+            report();
+        }
+    }
+
+    @Override
+    public void adSkipped() {
+        mRunning = false; // the remaining quartiles never fire
+    }
+
+    @Override
+    public void adComplete(boolean b, int i) {
+        mRunning = false;
+    }
+
+    private void quartile(int q) {
+        if (!mRunning) {
+            return;
+        }
+        if (mSkew[q] != NOT_FIRED) {
+            mDuplicates++;
+            return;
+        }
+        // both in ms, -1 when the SDK does not report them
+        long playhead = (long) TremorVideo.getPlayheadTime();
+        long duration = (long) TremorVideo.getAdDuration();
+        if (duration > 0) {
+            mDuration = duration;
+        }
+        if (playhead < 0 || duration <= 0) {
+            mSkew[q] = UNKNOWN;
+            return;
+        }
+        mSkew[q] = playhead - duration * (q + 1) / 4;
+    }
+
+    private void report() {
+        boolean failed = mDuplicates > 0;
+        StringBuilder report = new StringBuilder("Quartile skew:");
+        for (int q = 0; q < mSkew.length; q++) {
+            report.append(q == 0 ? " " : ", ").append(QUARTILES[q]).append(' ');
+            long skew = mSkew[q];
+            if (skew == NOT_FIRED) {
+                report.append("missing");
+                failed = true;
+            } else if (skew == UNKNOWN) {
+                report.append("unknown");
+            } else {
+                report.append(skew >= 0 ? "+" : "").append(skew).append("ms");
+                failed |= Math.abs(skew) > MAX_SKEW_MS;
+            }
+        }
+        if (mDuplicates > 0) {
+            report.append(", ").append(mDuplicates).append(" fired twice");
+        }
+        mLastReport = report.toString();
+        AdEventLog.get(mApplication).log("quartileSkew", failed ? AdEventLog.TYPE_FAIL : AdEventLog.TYPE_PASS,
+                mLastReport, mDuration > 0 ? "duration " + mDuration + "ms" : "duration unknown");
+    }
+}
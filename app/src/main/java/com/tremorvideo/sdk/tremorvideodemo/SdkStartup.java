@@ -0,0 +1,78 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.Context;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import com.tremorvideo.sdk.android.videoad.Settings;
+import com.tremorvideo.sdk.android.videoad.TremorVideo;
+
+/**
+ * Keeps TremorVideo.initialize off the critical path of onCreate.
+ *  - initialize() only records what to start and returns, the SDK is brought up from the main
+ *    thread's idle handler, once the first frame of the activity has been drawn
+ *  - The SDK, the event bus registration and the settings are each recorded in StartupTrace
+ *  - Until then TremorVideo.isInitialized() is false, so ad requests wait the same way they wait
+ *    for a slow initialization
+ *
+ *  Must be called from the main thread.
+ */
+class SdkStartup implements MessageQueue.IdleHandler {
+
+    private static SdkStartup sInstance;
+
+    private Context mContext;
+    private String[] mSiteIDs;
+    private Settings mSettings;
+    private boolean mScheduled;
+
+    static synchronized SdkStartup get() {
+        if (sInstance == null) {
+            sInstance = new SdkStartup();
+        }
+        return sInstance;
+    }
+
+    /**
+     * Initialize the SDK with siteIDs and settings as soon as the main thread is idle.
+     */
+    void initialize(Context context, String[] siteIDs, Settings settings) {
+        mContext = context.getApplicationContext();
+        mSiteIDs = siteIDs;
+        mSettings = settings;
+        if (!mScheduled) {
+            mScheduled = true;
+            Looper.myQueue().addIdleHandler(this);
+        }
+    }
+
+    /**
+     * Drop a pending initialize(), if the SDK has not been brought up yet.
+     */
+    void cancel() {
+        if (mScheduled) {
+            mScheduled = false;
+            Looper.myQueue().removeIdleHandler(this);
+            mContext = null;
+        }
+    }
+
+    @Override
+    public boolean queueIdle() {
+        mScheduled = false;
+        StartupTrace trace = StartupTrace.get();
+        long begin = trace.begin();
+        TremorVideo.initialize(mContext, mSiteIDs);
+        trace.end("TremorVideo", begin);
+
+        begin = trace.begin();
+        AdEventBus.get().attach();
+        trace.end("AdEventBus", begin);
+
+        begin = trace.begin();
+        TremorVideo.updateSettings(mSettings);
+        trace.end("Settings", begin);
+        mContext = null;
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.os.SystemClock;
+
+/**
+ * Measures the time from a showAd call to the first frame of the ad video, reported by the SDK
+ * with adVideoStart. Call showAdCalled() right before TremorVideo.showAd.
+ *
+ *  Subscribed to AdEventBus with MAIN delivery, so the measurement is not delayed by a queue.
+ */
+class ShowAdTimer extends AdStateAdapter {
+
+    private static ShowAdTimer sInstance;
+
+    private long mShowAdAt;
+    private long mLastTimeToFirstFrame = -1;
+
+    static synchronized ShowAdTimer get() {
+        if (sInstance == null) {
+            sInstance = new ShowAdTimer();
+            AdEventBus.get().subscribe(sInstance, AdEventBus.Delivery.MAIN);
+        }
+        return sInstance;
+    }
+
+    void showAdCalled() {
+        mShowAdAt = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * @return the time from showAd to the first video frame of the last ad, or -1 if unknown
+     */
+    long getLastTimeToFirstFrame() {
+        return mLastTimeToFirstFrame;
+    }
+
+    @Override
+    public void adVideoStart(int i) {
+        if (mShowAdAt == 0) {
+            return;
+        }
+        mLastTimeToFirstFrame = SystemClock.elapsedRealtime() - mShowAdAt;
+        mShowAdAt = 0;
+    }
+
+    @Override
+    public void adComplete(boolean b, int i) {
+        mShowAdAt = 0; // the ad ended without a video frame
+    }
+}
@@ -19,20 +19,24 @@ import com.tremorvideo.sdk.android.videoad.Settings;
 import com.tremorvideo.sdk.android.videoad.TremorAdStateListener;
 import com.tremorvideo.sdk.android.videoad.TremorVideo;
 
+import java.util.List;
+
 /**
- *  This Activity demonstrates the "Show back to back" ad flow. The application tries to show 3 ads back to back
- *  - The applicaiton makes an ad request and waits for the adReady callback
- *  - If an ad is ready, the application will show the ad
- *  - Once ad is completed, the application listens for the adComplete callback, and makes another ad request.
+ *  This Activity demonstrates the "Show back to back" ad flow. The application shows a pod of ads back to back
+ *  - The applicaiton starts an AdPod, which fills an AdInventory and waits for the adReady callback
+ *  - If an ad is ready, the pod will show the ad from the inventory
+ *  - The next ad is fetched in the background while the current ad plays
+ *  - Once ad is completed, the pod listens for the adComplete callback, and shows the next ready ad right away
+ *  - The gap between two ads of the pod is logged for every transition
  *
  *  For more details about SDK API and Integration, please visit
  *  https://github.com/TremorVideoMobile/TremorVideo-Android-SDK
  */
-public class ShowBackToBackActivity extends AppCompatActivity implements TremorAdStateListener {
+public class ShowBackToBackActivity extends AppCompatActivity implements TremorAdStateListener, AdPod.Listener {
 
     private static final int PERMISSION_REQUEST_CODE = 0x1111;
-    private static final int NUM_ADS = 3; // the number of ads you want to show in a row
-    private int mNumAdsLoaded;
+    private static final int DEFAULT_POD_SIZE = 3; // the number of ads you want to show in a row
+    private AdPod mPod;
     private Activity mActivity;
     private Context mContext;
     private TextView mTextView;
@@ -49,10 +53,7 @@ public class ShowBackToBackActivity extends AppCompatActivity implements TremorA
         mContext = getApplicationContext();
 
         mTextView = (TextView) findViewById(R.id.logMessageTextView);
-        String siteID = intent.getStringExtra(TremorListActivity.SITE_ID);
-
-        /** initialize TremorVideo*/
-        TremorVideo.initialize(this, siteID);
+        String[] siteIDs = intent.getStringArrayExtra(TremorListActivity.SITE_IDS);
 
         // Set information about our content and user
         Settings settings = new Settings();
@@ -61,10 +62,16 @@ public class ShowBackToBackActivity extends AppCompatActivity implements TremorA
         settings.userZip = "10001";
         settings.maxAdTimeSeconds = 60;
         settings.userGender = Settings.Gender.Male;
-        TremorVideo.updateSettings(settings);
 
-        /** Set the AdStateListener so that this class can listen for TremorVideo events */
-        TremorVideo.setAdStateListener(this);
+        /** attach to the process-wide TremorVideo, the first activity to attach initializes it */
+        DemoApplication.get(this).attach(this, siteIDs, settings);
+        int podSize = intent.getIntExtra(TremorListActivity.POD_SIZE, DEFAULT_POD_SIZE);
+        mPod = new AdPod(this, DemoApplication.get(this).getInventory(), podSize);
+        mPod.setListener(this);
+
+        /** Subscribe to the AdEventBus so that this class can listen for TremorVideo events on the main thread */
+        AdEventBus.get().subscribe(this, AdEventBus.Delivery.MAIN);
+        AdEventBus.get().subscribe(AdEventLog.get(this).getAdStateListener(), AdEventBus.Delivery.BACKGROUND);
 
         mScrollView = (ScrollView) findViewById(R.id.scrollView);
         final Button loadAndShowAdButton = (Button) findViewById(R.id.loadAndShowAd);
@@ -92,8 +99,10 @@ public class ShowBackToBackActivity extends AppCompatActivity implements TremorA
     protected void onDestroy() {
         super.onDestroy();
 
-        // End the current user session while shutting down the static instance of TremorVideo
-        TremorVideo.destroy();
+        AdEventBus.get().unsubscribe(this);
+
+        // the SDK outlives the activity, DemoApplication shuts it down once no flow uses it
+        DemoApplication.get(this).detach(this);
     }
 
     @Override
@@ -102,26 +111,23 @@ public class ShowBackToBackActivity extends AppCompatActivity implements TremorA
     }
 
     public void loadNewAd(){
-        if (TremorVideo.isInitialized()) {
-            /** To request an ad, call loadAd */
-            if (mNumAdsLoaded < NUM_ADS) {
-                try {
-                    TremorVideo.loadAd(); // request an ad load and then wait for adReady callBack
-                } catch (Exception e) {
-                    /** This exception should be handled as errors during loading can cause adReady not to be called */
-                    hideLoadingScreen();
-                    mTextView.append("Exception loading Ad: " + e.getMessage() );
-                    e.printStackTrace();
-                }
-                showLoadingScreen();
-                mNumAdsLoaded++;
-            } else {
-                hideLoadingScreen();
-                mNumAdsLoaded = 0;
+        if (TremorVideo.isInitialized() && !mPod.isRunning()) {
+            showLoadingScreen();
+            try {
+                mPod.start(); // shows a ready ad right away or requests one and waits for adReady callBack
+            } catch (Exception e) {
+                /** This exception should be handled as errors during loading can cause adReady not to be called */
+                onPodError(e);
             }
         }
     }
 
+    private void onPodError(Exception e) {
+        mPod.cancel(); // reset the app state
+        hideLoadingScreen();
+        mTextView.append("Exception loading Ad: " + e.getMessage() );
+        e.printStackTrace();
+    }
 
     public void showLoadingScreen() {
         if( mLoadingDialog == null) {
@@ -133,7 +139,7 @@ public class ShowBackToBackActivity extends AppCompatActivity implements TremorA
         }
     }
     public void hideLoadingScreen(){
-        if(mLoadingDialog != null && mLoadingDialog.isShowing() && mNumAdsLoaded >= NUM_ADS){
+        if(mLoadingDialog != null && mLoadingDialog.isShowing()){
             mLoadingDialog.hide();
             mLoadingDialog.dismiss();
             mLoadingDialog = null;
@@ -158,7 +164,8 @@ public class ShowBackToBackActivity extends AppCompatActivity implements TremorA
 
     @Override
     public void sdkInitialized() {
-
+        mTextView.append(StartupTrace.get().getReport() + "\n");
+        mScrollView.fullScroll(View.FOCUS_DOWN);
     }
 
     /**
@@ -168,40 +175,55 @@ public class ShowBackToBackActivity extends AppCompatActivity implements TremorA
     public void adStart() {
         mTextView.append("Ad Started\n");
         mScrollView.fullScroll(View.FOCUS_DOWN);
+        mPod.onAdStart();
     }
 
     /**
      * This callback is made after the TremorVideo SDK has finished with a showAd request.
-     * It can be used to resume publisher content or in this case request and show a new Ad
+     * It can be used to resume publisher content or in this case show the next Ad of the pod
      */
     @Override
     public void adComplete(boolean b, int i) {
         mTextView.append("Ad Completed\n");
         mScrollView.fullScroll(View.FOCUS_DOWN);
-        loadNewAd();
+        try {
+            mPod.onAdComplete();
+        } catch (Exception e) {
+            onPodError(e);
+        }
     }
 
     /**
      * This callback is made after the TremorVideo SDK has finished with a loadAd request
-     * In this case we are using it to show an Ad as soon as its ready
+     * In this case the pod uses it to show an Ad as soon as its ready, or to keep the next Ad of the pod
      * If the ad fails to download, b will equal false
      */
     @Override
     public void adReady(boolean b) {
         mTextView.append("Ad Ready: " + b + "\n");
         mScrollView.fullScroll(View.FOCUS_DOWN);
-        if(b) {
-            try {
-                TremorVideo.showAd(this, RESULT_OK);
+        try {
+            mPod.onAdReady(b);
+        } catch (Exception e) {
+            onPodError(e);
+        }
+    }
 
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        } else {
-            loadNewAd();
+    @Override
+    public void podAdStarted(int index, long gapMillis) {
+        if (gapMillis >= 0) {
+            mTextView.append("Pod Ad " + (index + 1) + " started " + gapMillis + "ms after the previous Ad\n");
+            mScrollView.fullScroll(View.FOCUS_DOWN);
         }
     }
 
+    @Override
+    public void podComplete(List<Long> gapsMillis) {
+        mTextView.append("Pod Completed, gaps: " + gapsMillis + "\n");
+        mScrollView.fullScroll(View.FOCUS_DOWN);
+        hideLoadingScreen();
+    }
+
     /**
      * If the user skips an ad, this TremorAdStateListener method is called
      */
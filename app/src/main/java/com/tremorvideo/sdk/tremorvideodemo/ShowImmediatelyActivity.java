@@ -25,7 +25,7 @@ import com.tremorvideo.sdk.android.videoad.TremorVideo;
  *  - The application makes an ad request.
  *  - The application shows a loading screen while waiting for ad response
  *  - As soon as an ad is ready, the application receives the adReady callback.
- *  - If an ad is ready, the application calls showAd to display the ad
+ *  - If an ad is ready, the application shows it from the AdInventory shared by every flow
  *
  *  For more details about SDK API and Integration, please visit
  *  https://github.com/TremorVideoMobile/TremorVideo-Android-SDK
@@ -38,6 +38,8 @@ public class ShowImmediatelyActivity extends AppCompatActivity implements Tremor
     private TextView mTextView;
     private ScrollView mScrollView;
     private Dialog mLoadingDialog;
+    // the user asked for an ad and none has been shown yet, the inventory also reports background refills
+    private boolean mAdRequested;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -50,10 +52,7 @@ public class ShowImmediatelyActivity extends AppCompatActivity implements Tremor
         mContext = getApplicationContext();
 
         mTextView = (TextView) findViewById(R.id.logMessageTextView);
-        String siteID = intent.getStringExtra(TremorListActivity.SITE_ID);
-
-        /** initialize TremorVideo */
-        TremorVideo.initialize(this, siteID);
+        String[] siteIDs = intent.getStringArrayExtra(TremorListActivity.SITE_IDS);
 
         // Set information about our content and user
         Settings settings = new Settings();
@@ -62,10 +61,13 @@ public class ShowImmediatelyActivity extends AppCompatActivity implements Tremor
         settings.userZip = "10001";
         settings.maxAdTimeSeconds = 60;
         settings.userGender = Settings.Gender.Male;
-        TremorVideo.updateSettings(settings);
 
-        /** Set the AdStateListener so that this class can listen for TremorVideo events */
-        TremorVideo.setAdStateListener(this);
+        /** attach to the process-wide TremorVideo, the first activity to attach initializes it */
+        DemoApplication.get(this).attach(this, siteIDs, settings);
+
+        /** Subscribe to the AdEventBus so that this class can listen for TremorVideo events on the main thread */
+        AdEventBus.get().subscribe(this, AdEventBus.Delivery.MAIN);
+        AdEventBus.get().subscribe(AdEventLog.get(this).getAdStateListener(), AdEventBus.Delivery.BACKGROUND);
 
         mScrollView = (ScrollView) findViewById(R.id.scrollView);
         final Button loadAndShowAdButton = (Button) findViewById(R.id.loadAndShowAd);
@@ -75,14 +77,18 @@ public class ShowImmediatelyActivity extends AppCompatActivity implements Tremor
                     try {
                         if (TremorVideo.isInitialized()) {
                             showLoadingScreen();
+                            mAdRequested = true;
 
-                            /** To request an ad, call loadAd, then wait for adReady callback */
-                            TremorVideo.loadAd();
+                            /** An ad may still be ready from another flow, otherwise request one and wait for adReady callback */
+                            if (!showReadyAd()) {
+                                DemoApplication.get(mContext).getInventory().fill();
+                            }
                         }
                     } catch (Exception e) {
                         /** This exception should be always be handled
                          * In cases where an error happens during a loadAd request then adReady will not be made
                          */
+                        mAdRequested = false;
                         hideLoadingScreen(); // reset the app state
                         mTextView.append("Exception loading Ad: " + e.getMessage() );
                         e.printStackTrace();
@@ -106,8 +112,10 @@ public class ShowImmediatelyActivity extends AppCompatActivity implements Tremor
     protected void onDestroy() {
         super.onDestroy();
 
-        // End the current user session while shutting down the static instance of TremorVideo
-        TremorVideo.destroy();
+        AdEventBus.get().unsubscribe(this);
+
+        // the SDK outlives the activity, DemoApplication shuts it down once no flow uses it
+        DemoApplication.get(this).detach(this);
     }
 
     @Override
@@ -149,7 +157,8 @@ public class ShowImmediatelyActivity extends AppCompatActivity implements Tremor
 
     @Override
     public void sdkInitialized() {
-
+        mTextView.append(StartupTrace.get().getReport() + "\n");
+        mScrollView.fullScroll(View.FOCUS_DOWN);
     }
 
     /**
@@ -169,30 +178,65 @@ public class ShowImmediatelyActivity extends AppCompatActivity implements Tremor
     @Override
     public void adComplete(boolean b, int i) {
         mTextView.append("Ad Completed\n");
+        FrameMonitor frameMonitor = FrameMonitor.get();
+        if (frameMonitor != null && frameMonitor.getLastReport() != null) {
+            mTextView.append(frameMonitor.getLastReport() + "\n");
+        }
+        QuartileMonitor quartileMonitor = QuartileMonitor.get();
+        if (quartileMonitor != null && quartileMonitor.getLastReport() != null) {
+            mTextView.append(quartileMonitor.getLastReport() + "\n");
+        }
+        ThroughputEstimator estimator = ThroughputEstimator.get();
+        if (estimator != null && estimator.getSampleCount() > 0) {
+            mTextView.append("Bandwidth estimate: " + estimator.getEstimateKbps() + "kbps\n");
+        }
+        long timeToFirstFrame = ShowAdTimer.get().getLastTimeToFirstFrame();
+        if (timeToFirstFrame >= 0) {
+            mTextView.append("Time to first frame: " + timeToFirstFrame + "ms\n");
+        }
         mScrollView.fullScroll(View.FOCUS_DOWN);
         hideLoadingScreen();
     }
 
     /**
      * This callback is made after the TremorVideo SDK has finished with a loadAd request
-     * In this case we are using it to show an Ad as soon as its ready
+     * In this case we are using it to show an Ad as soon as its ready, if the user asked for one
+     * It is also made for the refills and refreshes of the inventory, those ads are kept for later
      * If the ad fails to download, b will equal false
      */
     @Override
     public void adReady(boolean b) {
         mTextView.append("Ad Ready: " + b + "\n");
         mScrollView.fullScroll(View.FOCUS_DOWN);
+        if (!mAdRequested) {
+            return;
+        }
         if(b) {
             try {
-                TremorVideo.showAd(this, RESULT_OK);
+                showReadyAd();
             } catch (Exception e) {
                 e.printStackTrace();
             }
         } else {
+            mAdRequested = false;
             hideLoadingScreen();
         }
     }
 
+    /**
+     * Show an ad from the shared inventory, it is refilled in the background
+     * @return false if no ad was ready
+     */
+    private boolean showReadyAd() throws Exception {
+        AdInventory inventory = DemoApplication.get(this).getInventory();
+        String siteID = inventory.nextReadySiteID();
+        if (siteID == null || !inventory.show(this, siteID, RESULT_OK)) {
+            return false;
+        }
+        mAdRequested = false;
+        return true;
+    }
+
     /**
      * If the user skips an ad, this TremorAdStateListener method is called
      */
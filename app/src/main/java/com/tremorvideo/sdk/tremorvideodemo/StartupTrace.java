@@ -0,0 +1,51 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.os.SystemClock;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each subsystem took to start, so startup regressions can be pinned on one of them.
+ *  - Wrap the start of a subsystem in begin() and end(), the time spent is added to its entry
+ *  - getReport() lists the subsystems in the order they were first started
+ *
+ *  Times are wall clock on the calling thread, so a subsystem started on a background thread does
+ *  not count against the main thread.
+ */
+class StartupTrace {
+
+    private static StartupTrace sInstance;
+
+    private final LinkedHashMap<String, Long> mDurations = new LinkedHashMap<String, Long>();
+
+    static synchronized StartupTrace get() {
+        if (sInstance == null) {
+            sInstance = new StartupTrace();
+        }
+        return sInstance;
+    }
+
+    /**
+     * @return the start time to hand to end()
+     */
+    long begin() {
+        return SystemClock.elapsedRealtime();
+    }
+
+    synchronized void end(String subsystem, long begin) {
+        long duration = SystemClock.elapsedRealtime() - begin;
+        Long previous = mDurations.get(subsystem);
+        mDurations.put(subsystem, previous == null ? duration : previous + duration);
+    }
+
+    synchronized String getReport() {
+        StringBuilder report = new StringBuilder("Startup:");
+        String separator = " ";
+        for (Map.Entry<String, Long> entry : mDurations.entrySet()) {
+            report.append(separator).append(entry.getKey()).append(' ').append(entry.getValue()).append("ms");
+            separator = ", ";
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.TrafficStats;
+import android.os.Process;
+import android.os.SystemClock;
+import android.text.TextUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Estimates the download throughput of the device from the downloads the app actually makes.
+ *  - NetworkDispatcher reports every response body of at least MIN_SAMPLE_BYTES, small bodies
+ *    mostly measure latency and are ignored
+ *  - The ad loads of the SDK are measured from outside, between loadStarted() and loadFinished(),
+ *    with the bytes the app received in the meantime. They include the ad request round trip, so
+ *    they err on the low side.
+ *  - The estimate is the ESTIMATE_PERCENTILE percentile of the last WINDOW_SIZE samples, low
+ *    enough that a rendition picked from it rarely stalls
+ *  - The samples are kept in shared preferences, so a new session starts from the last estimate
+ *
+ *  Install once with install(Context), then read the estimate with getEstimateKbps().
+ */
+class ThroughputEstimator {
+
+    static final int WINDOW_SIZE = 20;
+    static final int ESTIMATE_PERCENTILE = 30;
+    static final int MIN_SAMPLE_BYTES = 32 * 1024;
+
+    private static final String PREFERENCES = "throughput";
+    private static final String KEY_SAMPLES = "samples";
+
+    private static ThroughputEstimator sInstance;
+
+    private final SharedPreferences mPreferences;
+    private final ArrayDeque<Integer> mSamples = new ArrayDeque<Integer>();
+    private int mEstimateKbps;
+    private long mLoadStartedAt;
+    private long mLoadStartRxBytes = TrafficStats.UNSUPPORTED;
+
+    static synchronized ThroughputEstimator install(Context context) {
+        if (sInstance == null) {
+            sInstance = new ThroughputEstimator(context);
+        }
+        return sInstance;
+    }
+
+    static synchronized ThroughputEstimator get() {
+        return sInstance;
+    }
+
+    private ThroughputEstimator(Context context) {
+        mPreferences = context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        String saved = mPreferences.getString(KEY_SAMPLES, "");
+        for (String sample : TextUtils.split(saved, ",")) {
+            try {
+                addSample(Integer.parseInt(sample));
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+        mEstimateKbps = computeEstimate();
+    }
+
+    /**
+     * Record a download of bytes that took millis to read.
+     */
+    synchronized void record(long bytes, long millis) {
+        if (bytes < MIN_SAMPLE_BYTES || millis <= 0) {
+            return;
+        }
+        addSample((int) Math.min(Integer.MAX_VALUE, bytes * 8 / millis)); // bits per ms is kbps
+        mEstimateKbps = computeEstimate();
+        mPreferences.edit().putString(KEY_SAMPLES, TextUtils.join(",", mSamples)).apply();
+    }
+
+    /**
+     * An ad load of the SDK has started, AdInventory calls it next to TremorVideo.loadAd().
+     */
+    synchronized void loadStarted() {
+        mLoadStartRxBytes = TrafficStats.getUidRxBytes(Process.myUid());
+        mLoadStartedAt = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * The ad load started with loadStarted() has ended, record it if it downloaded an ad.
+     */
+    synchronized void loadFinished(boolean loaded) {
+        long startRxBytes = mLoadStartRxBytes;
+        mLoadStartRxBytes = TrafficStats.UNSUPPORTED;
+        if (!loaded || startRxBytes == TrafficStats.UNSUPPORTED) {
+            return; // nothing was started, or the device does not count the traffic of apps
+        }
+        long rxBytes = TrafficStats.getUidRxBytes(Process.myUid());
+        if (rxBytes != TrafficStats.UNSUPPORTED) {
+            record(rxBytes - startRxBytes, SystemClock.elapsedRealtime() - mLoadStartedAt);
+        }
+    }
+
+    /**
+     * @return the estimated throughput in kilobits per second, or 0 while there are no samples
+     */
+    synchronized int getEstimateKbps() {
+        return mEstimateKbps;
+    }
+
+    synchronized int getSampleCount() {
+        return mSamples.size();
+    }
+
+    private void addSample(int kbps) {
+        if (mSamples.size() == WINDOW_SIZE) {
+            mSamples.removeFirst();
+        }
+        mSamples.addLast(kbps);
+    }
+
+    private int computeEstimate() {
+        if (mSamples.isEmpty()) {
+            return 0;
+        }
+        List<Integer> sorted = new ArrayList<Integer>(mSamples);
+        Collections.sort(sorted);
+        return sorted.get((sorted.size() - 1) * ESTIMATE_PERCENTILE / 100);
+    }
+}
@@ -27,24 +27,27 @@ public class TremorListActivity extends AppCompatActivity {
     ListView mAdFlowListView;
     TextView mAdFlowTextView;
     final static String TITLE = "title";
-    final static String SITE_ID = "siteID";
+    final static String SITE_IDS = "siteIDs";
+    final static String POD_SIZE = "podSize";
     enum FlowType{ SHOW_BACKTOBACK, SHOW_IMMEDIATELY, PRELOAD };
     static class Ad {
         final String name;
-        final String siteID;
+        final String[] siteIDs;
         final FlowType flowType;
-        Ad(String n, String id, FlowType f){
+        Ad(String n, String[] ids, FlowType f){
             name = n;
-            siteID = id;
+            siteIDs = ids;
             flowType = f;
         }
     }
 
     static final String HEADER = "Ad Flow";
+    // Every site ID is initialized together and gets its own readiness state, add placements here
+    static final String[] SITE_IDS_ALL = { "test" };
     static final Ad[] AD_FLOWS = {
-            new Ad("Preload in background", "test", FlowType.PRELOAD),
-            new Ad("Show immediately", "test", FlowType.SHOW_IMMEDIATELY),
-            new Ad("Show back yo back", "test", FlowType.SHOW_BACKTOBACK)
+            new Ad("Preload in background", SITE_IDS_ALL, FlowType.PRELOAD),
+            new Ad("Show immediately", SITE_IDS_ALL, FlowType.SHOW_IMMEDIATELY),
+            new Ad("Show back yo back", SITE_IDS_ALL, FlowType.SHOW_BACKTOBACK)
     };
 
     class AdArrayAdapter<String> extends ArrayAdapter {
@@ -79,11 +82,12 @@ public class TremorListActivity extends AppCompatActivity {
                     intent = new Intent(getApplicationContext(),ShowImmediatelyActivity.class);
                 } else if(FlowType.SHOW_BACKTOBACK == section[position].flowType){
                     intent = new Intent(getApplicationContext(),ShowBackToBackActivity.class);
+                    intent.putExtra(POD_SIZE, 3);
                 } else {
                     intent = new Intent(getApplicationContext(),PreloadActivity.class);
                 }
                 intent.putExtra(TITLE,(String) section[position].name);
-                intent.putExtra(SITE_ID,(String) section[position].siteID);
+                intent.putExtra(SITE_IDS, section[position].siteIDs);
                 startActivity(intent);
             }
         };
@@ -0,0 +1,92 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One Ad of a VAST document, either an InLine ad or a Wrapper pointing at the next VAST tag.
+ *
+ *  Plain Java on purpose, it is also built by the benchmarks module.
+ */
+class VastAd {
+
+    static class MediaFile {
+        String url;
+        String type;
+        String delivery;
+        int bitrate;
+        int width;
+        int height;
+    }
+
+    String id;
+    boolean wrapper;
+    String adTagUri;
+    String clickThrough;
+    int durationSeconds;
+    final List<String> impressions = new ArrayList<String>();
+    final List<String> clickTracking = new ArrayList<String>();
+    final Map<String, List<String>> tracking = new HashMap<String, List<String>>();
+    final List<MediaFile> mediaFiles = new ArrayList<MediaFile>();
+
+    void addTracking(String event, String url) {
+        List<String> urls = tracking.get(event);
+        if (urls == null) {
+            urls = new ArrayList<String>();
+            tracking.put(event, urls);
+        }
+        urls.add(url);
+    }
+
+    /**
+     * Add the impressions and tracking of the wrapper that led to this ad, they must fire as well.
+     */
+    void mergeWrapper(VastAd wrapper) {
+        impressions.addAll(wrapper.impressions);
+        clickTracking.addAll(wrapper.clickTracking);
+        for (Map.Entry<String, List<String>> entry : wrapper.tracking.entrySet()) {
+            for (String url : entry.getValue()) {
+                addTracking(entry.getKey(), url);
+            }
+        }
+    }
+
+    MediaFile selectMediaFile(Set<String> supportedTypes, int bandwidthKbps) {
+        return selectMediaFile(supportedTypes, bandwidthKbps, 0);
+    }
+
+    /**
+     * Pick the progressive MediaFile that the device can decode with the highest bitrate that still
+     * fits the bandwidth. When none fits, or the bandwidth is not known yet, the lowest bitrate one
+     * is used: a first ad that stalls costs more than a first ad in low resolution.
+     * @param supportedTypes mime types the device can decode, or null to accept every type
+     * @param bandwidthKbps estimated bandwidth, or 0 when unknown
+     * @param maxDownloadSeconds the whole file must download within this time, or 0 for no limit
+     * @return the selected MediaFile, or null if none can be played
+     */
+    MediaFile selectMediaFile(Set<String> supportedTypes, int bandwidthKbps, int maxDownloadSeconds) {
+        MediaFile best = null;
+        MediaFile lowest = null;
+        for (MediaFile file : mediaFiles) {
+            if (file.url == null || "streaming".equals(file.delivery)) {
+                continue;
+            }
+            if (supportedTypes != null && !supportedTypes.contains(file.type)) {
+                continue;
+            }
+            if (lowest == null || file.bitrate < lowest.bitrate) {
+                lowest = file;
+            }
+            boolean fits = bandwidthKbps > 0 && file.bitrate <= bandwidthKbps
+                    && (maxDownloadSeconds <= 0 || durationSeconds <= 0
+                    || (long) file.bitrate * durationSeconds <= (long) bandwidthKbps * maxDownloadSeconds);
+            if (fits && (best == null || file.bitrate > best.bitrate)) {
+                best = file;
+            }
+        }
+        return best != null ? best : lowest;
+    }
+}
@@ -0,0 +1,121 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A streaming VAST parser. It pulls events straight off the input stream, so parsing goes on
+ * while the bytes arrive and no DOM or WebView is involved. Unknown elements are skipped.
+ *
+ *  Plain Java on purpose, it is also built by the benchmarks module.
+ */
+final class VastParser {
+
+    private static XmlPullParserFactory sFactory;
+
+    private VastParser() {
+    }
+
+    // looking the factory up is far more expensive than parsing a typical VAST document
+    private static synchronized XmlPullParser newPullParser() throws XmlPullParserException {
+        if (sFactory == null) {
+            sFactory = XmlPullParserFactory.newInstance();
+        }
+        return sFactory.newPullParser();
+    }
+
+    /**
+     * @param deadline System.currentTimeMillis() after which parsing is abandoned, or 0 for none
+     */
+    static List<VastAd> parse(InputStream in, String encoding, long deadline) throws IOException, XmlPullParserException {
+        XmlPullParser parser = newPullParser();
+        parser.setInput(in, encoding);
+        List<VastAd> ads = new ArrayList<VastAd>();
+        VastAd ad = null;
+        for (int event = parser.next(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+            if (deadline != 0 && System.currentTimeMillis() > deadline) {
+                throw new InterruptedIOException("VAST parsing timed out");
+            }
+            if (event != XmlPullParser.START_TAG) {
+                continue;
+            }
+            String name = parser.getName();
+            if ("Ad".equals(name)) {
+                ad = new VastAd();
+                ad.id = parser.getAttributeValue(null, "id");
+                ads.add(ad);
+            } else if (ad == null) {
+                continue;
+            } else if ("Wrapper".equals(name)) {
+                ad.wrapper = true;
+            } else if ("VASTAdTagURI".equals(name)) {
+                ad.adTagUri = text(parser);
+            } else if ("Impression".equals(name)) {
+                addIfPresent(ad.impressions, text(parser));
+            } else if ("Duration".equals(name)) {
+                ad.durationSeconds = parseDuration(text(parser));
+            } else if ("Tracking".equals(name)) {
+                String trackingEvent = parser.getAttributeValue(null, "event");
+                String url = text(parser);
+                if (trackingEvent != null && url.length() > 0) {
+                    ad.addTracking(trackingEvent, url);
+                }
+            } else if ("ClickThrough".equals(name)) {
+                ad.clickThrough = text(parser);
+            } else if ("ClickTracking".equals(name)) {
+                addIfPresent(ad.clickTracking, text(parser));
+            } else if ("MediaFile".equals(name)) {
+                VastAd.MediaFile mediaFile = new VastAd.MediaFile();
+                mediaFile.type = parser.getAttributeValue(null, "type");
+                mediaFile.delivery = parser.getAttributeValue(null, "delivery");
+                mediaFile.bitrate = parseInt(parser.getAttributeValue(null, "bitrate"));
+                mediaFile.width = parseInt(parser.getAttributeValue(null, "width"));
+                mediaFile.height = parseInt(parser.getAttributeValue(null, "height"));
+                mediaFile.url = text(parser);
+                ad.mediaFiles.add(mediaFile);
+            }
+        }
+        return ads;
+    }
+
+    private static String text(XmlPullParser parser) throws IOException, XmlPullParserException {
+        return parser.nextText().trim();
+    }
+
+    private static void addIfPresent(List<String> urls, String url) {
+        if (url.length() > 0) {
+            urls.add(url);
+        }
+    }
+
+    private static int parseInt(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @param value a VAST duration, HH:MM:SS or HH:MM:SS.mmm
+     */
+    static int parseDuration(String value) {
+        String[] parts = value.split(":");
+        if (parts.length != 3) {
+            return 0;
+        }
+        int dot = parts[2].indexOf('.');
+        String seconds = dot < 0 ? parts[2] : parts[2].substring(0, dot);
+        return parseInt(parts[0]) * 3600 + parseInt(parts[1]) * 60 + parseInt(seconds);
+    }
+}
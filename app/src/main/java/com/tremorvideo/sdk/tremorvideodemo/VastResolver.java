@@ -0,0 +1,272 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.os.Handler;
+import android.os.Looper;
+
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves a VAST tag down to its InLine ads.
+ *  - Every hop is an AD_REQUEST of NetworkDispatcher, so it shares its connections, its per-host
+ *    limit and cancelAll(), and feeds ThroughputEstimator
+ *  - Every hop is parsed with VastParser while it downloads, on the dispatcher thread
+ *  - Wrappers are followed up to MAX_WRAPPER_HOPS. Each hop has to be fetched and parsed within
+ *    HOP_TIMEOUT_MS of being enqueued, its request is cancelled when the time is up
+ *  - The wrappers of a document (an ad pod) are followed in parallel
+ *  - The impressions and tracking of every wrapper are merged into the InLine ad they lead to
+ *
+ *  Call and get called back on the main thread. Pick the rendition to play with selectMediaFile().
+ */
+class VastResolver {
+
+    interface Callback {
+        void onResolved(List<VastAd> ads);
+        void onFailed(Exception e);
+    }
+
+    static final int MAX_WRAPPER_HOPS = 5;
+    static final int HOP_TIMEOUT_MS = 5000;
+
+    // MediaFile@type is a container type, MediaCodecList lists the codecs that can go in it
+    private static final Map<String, String[]> CONTAINER_CODECS = new HashMap<String, String[]>();
+
+    static {
+        CONTAINER_CODECS.put("video/mp4", new String[]{ "video/avc", "video/hevc", "video/mp4v-es" });
+        CONTAINER_CODECS.put("video/3gpp", new String[]{ "video/3gpp", "video/avc", "video/mp4v-es" });
+        CONTAINER_CODECS.put("video/webm", new String[]{ "video/x-vnd.on2.vp8", "video/x-vnd.on2.vp9" });
+    }
+
+    private static Set<String> sSupportedVideoTypes;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    /**
+     * Resolve tagUrl. Ads whose wrapper chain fails are left out, onFailed() is only called when the
+     * tag itself cannot be fetched or parsed.
+     */
+    void resolve(String tagUrl, final Callback callback) {
+        fetch(tagUrl, new Hop() {
+            @Override
+            void onFetched(List<VastAd> ads) {
+                new Resolution(ads, callback).start();
+            }
+
+            @Override
+            void onFailed(Exception e) {
+                callback.onFailed(e);
+            }
+        });
+    }
+
+    /**
+     * The ads of one document, each followed down its wrapper chain.
+     */
+    private class Resolution {
+        private final VastAd[] mResolved;
+        private final Callback mCallback;
+        private int mPending;
+
+        Resolution(List<VastAd> ads, Callback callback) {
+            mResolved = ads.toArray(new VastAd[ads.size()]);
+            mCallback = callback;
+            mPending = mResolved.length;
+        }
+
+        void start() {
+            if (mPending == 0) {
+                finish();
+                return;
+            }
+            for (int i = 0; i < mResolved.length; i++) {
+                unwrap(i, mResolved[i], 1);
+            }
+        }
+
+        private void unwrap(final int index, final VastAd ad, final int hop) {
+            if (!ad.wrapper) {
+                resolved(index, ad);
+                return;
+            }
+            if (ad.adTagUri == null) {
+                failed(index, new IOException("VAST wrapper without VASTAdTagURI"));
+                return;
+            }
+            if (hop > MAX_WRAPPER_HOPS) {
+                failed(index, new IOException("VAST wrapper chain longer than " + MAX_WRAPPER_HOPS + " hops"));
+                return;
+            }
+            fetch(ad.adTagUri, new Hop() {
+                @Override
+                void onFetched(List<VastAd> wrapped) {
+                    if (wrapped.isEmpty()) {
+                        resolved(index, null);
+                        return;
+                    }
+                    // a wrapper stands for a single ad, the first one of its target document
+                    VastAd next = wrapped.get(0);
+                    next.mergeWrapper(ad);
+                    unwrap(index, next, hop + 1);
+                }
+
+                @Override
+                void onFailed(Exception e) {
+                    failed(index, e);
+                }
+            });
+        }
+
+        private void failed(int index, Exception e) {
+            e.printStackTrace();
+            resolved(index, null);
+        }
+
+        private void resolved(int index, VastAd ad) {
+            mResolved[index] = ad;
+            if (--mPending == 0) {
+                finish();
+            }
+        }
+
+        private void finish() {
+            List<VastAd> ads = new ArrayList<VastAd>();
+            for (VastAd ad : mResolved) {
+                if (ad != null) {
+                    ads.add(ad);
+                }
+            }
+            mCallback.onResolved(ads);
+        }
+    }
+
+    /**
+     * Fetches and parses one document of the chain. The callbacks are made on the main thread.
+     */
+    private abstract static class Hop implements NetworkDispatcher.Callback, NetworkDispatcher.BodyReader {
+        private final long mDeadline = System.currentTimeMillis() + HOP_TIMEOUT_MS;
+        private volatile List<VastAd> mAds;
+        private Handler mHandler;
+        private Runnable mTimeout;
+        private boolean mTimedOut;
+
+        abstract void onFetched(List<VastAd> ads);
+
+        abstract void onFailed(Exception e);
+
+        void start(Handler handler, final NetworkDispatcher.Request request) {
+            mHandler = handler;
+            mTimeout = new Runnable() {
+                @Override
+                public void run() {
+                    mTimedOut = true;
+                    request.cancel(); // also aborts a stalled connect or read
+                }
+            };
+            mHandler.postDelayed(mTimeout, HOP_TIMEOUT_MS);
+            NetworkDispatcher.get().enqueue(request);
+        }
+
+        @Override
+        public void read(NetworkDispatcher.Request request, InputStream body) throws IOException {
+            try {
+                mAds = VastParser.parse(body, null, mDeadline);
+            } catch (XmlPullParserException e) {
+                throw new IOException("Malformed VAST from " + request.url + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void onResponse(NetworkDispatcher.Request request, int code, byte[] body) {
+            mHandler.removeCallbacks(mTimeout);
+            if (code != HttpURLConnection.HTTP_OK || mAds == null) {
+                onFailed(new IOException("HTTP " + code + " for " + request.url));
+                return;
+            }
+            onFetched(mAds);
+        }
+
+        @Override
+        public void onFailure(NetworkDispatcher.Request request, IOException e) {
+            mHandler.removeCallbacks(mTimeout);
+            onFailed(mTimedOut ? new InterruptedIOException("VAST hop " + request.url + " took longer than "
+                    + HOP_TIMEOUT_MS + "ms") : e);
+        }
+    }
+
+    private void fetch(String tagUrl, Hop hop) {
+        URL url;
+        try {
+            url = new URL(tagUrl);
+        } catch (IOException e) {
+            hop.onFailed(e);
+            return;
+        }
+        NetworkDispatcher.Request request = new NetworkDispatcher.Request(url, NetworkDispatcher.Priority.AD_REQUEST, hop);
+        request.bodyReader = hop;
+        hop.start(mMainHandler, request);
+    }
+
+    /**
+     * Pick the rendition of ad that the device can decode and that fits the measured throughput.
+     * @param maxAdTimeSeconds the time budget of the ad, see Settings.maxAdTimeSeconds
+     */
+    static VastAd.MediaFile selectMediaFile(VastAd ad, int maxAdTimeSeconds) {
+        ThroughputEstimator estimator = ThroughputEstimator.get();
+        int bandwidthKbps = estimator != null ? estimator.getEstimateKbps() : 0;
+        return ad.selectMediaFile(supportedVideoTypes(), bandwidthKbps, maxAdTimeSeconds);
+    }
+
+    /**
+     * @return the MediaFile types, video/mp4 and the like, the device has a decoder for
+     */
+    @SuppressWarnings("deprecation")
+    static synchronized Set<String> supportedVideoTypes() {
+        if (sSupportedVideoTypes == null) {
+            Set<String> codecs = new HashSet<String>();
+            for (int i = 0; i < MediaCodecList.getCodecCount(); i++) {
+                MediaCodecInfo info = MediaCodecList.getCodecInfoAt(i);
+                if (info.isEncoder()) {
+                    continue;
+                }
+                for (String type : info.getSupportedTypes()) {
+                    if (type.startsWith("video/")) {
+                        codecs.add(type);
+                    }
+                }
+            }
+            sSupportedVideoTypes = containerTypes(codecs);
+        }
+        return sSupportedVideoTypes;
+    }
+
+    /**
+     * @param codecTypes codec mime types, as listed by MediaCodecInfo.getSupportedTypes()
+     * @return the container types that can hold at least one of the codecs
+     */
+    static Set<String> containerTypes(Collection<String> codecTypes) {
+        Set<String> types = new HashSet<String>();
+        for (Map.Entry<String, String[]> container : CONTAINER_CODECS.entrySet()) {
+            for (String codec : container.getValue()) {
+                if (codecTypes.contains(codec)) {
+                    types.add(container.getKey());
+                    break;
+                }
+            }
+        }
+        return types;
+    }
+}
@@ -0,0 +1,49 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.webkit.WebView;
+
+/**
+ * Pays the one-time cost of loading the WebView implementation while the app is idle, instead of
+ * when the SDK builds the WebView of the first rich media creative or end card.
+ *  - One WebView is created from the main thread's idle handler and kept, holding it keeps the
+ *    WebView provider and its renderer loaded for the WebViews the SDK creates later
+ *  - It is built on the application context, so no activity is leaked
+ *  - The time it takes shows up as "WebView" in the StartupTrace report
+ *
+ *  Call warmUp() once, from the main thread.
+ */
+class WebViewWarmer implements MessageQueue.IdleHandler {
+
+    private static WebViewWarmer sInstance;
+
+    private final Context mContext;
+    private WebView mWebView;
+
+    static synchronized void warmUp(Context context) {
+        if (sInstance == null) {
+            sInstance = new WebViewWarmer(context);
+            Looper.myQueue().addIdleHandler(sInstance);
+        }
+    }
+
+    private WebViewWarmer(Context context) {
+        mContext = context.getApplicationContext();
+    }
+
+    @Override
+    public boolean queueIdle() {
+        long begin = StartupTrace.get().begin();
+        try {
+            mWebView = new WebView(new MutableContextWrapper(mContext));
+            StartupTrace.get().end("WebView", begin);
+        } catch (RuntimeException e) {
+            // the WebView package can be missing or updating, the SDK will deal with it on its own
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,128 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import android.app.Activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class AdPodTest {
+
+    /**
+     * An inventory whose ready ads are set by the test, without the SDK.
+     */
+    private static class FakeInventory extends AdInventory {
+        int ready;
+        int shown;
+        int fills;
+
+        FakeInventory() {
+            super(new String[]{"site"});
+        }
+
+        @Override
+        void fill() {
+            fills++;
+        }
+
+        @Override
+        String nextReadySiteID() {
+            return ready > 0 ? "site" : null;
+        }
+
+        @Override
+        boolean show(Activity activity, String siteID, int requestCode) {
+            if (ready == 0) {
+                return false;
+            }
+            ready--;
+            shown++;
+            return true;
+        }
+    }
+
+    private FakeInventory mInventory;
+    private AdPod mPod;
+    private final List<Integer> mStarted = new ArrayList<Integer>();
+    private List<Long> mGaps;
+
+    @Before
+    public void setUp() {
+        mInventory = new FakeInventory();
+        mPod = new AdPod(null, mInventory, 2);
+        mPod.setListener(new AdPod.Listener() {
+            @Override
+            public void podAdStarted(int index, long gapMillis) {
+                mStarted.add(index);
+            }
+
+            @Override
+            public void podComplete(List<Long> gapsMillis) {
+                mGaps = gapsMillis;
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyPod() {
+        new AdPod(null, mInventory, 0);
+    }
+
+    @Test
+    public void showsReadyAdsBackToBack() throws Exception {
+        mInventory.ready = 2;
+        mPod.start();
+        assertTrue(mPod.isRunning());
+        assertEquals(1, mInventory.shown);
+        mPod.onAdStart();
+        mPod.onAdReady(true); // refilled in the background while the first ad plays
+        assertEquals(1, mInventory.shown);
+        mPod.onAdComplete();
+        assertEquals(2, mInventory.shown);
+        mPod.onAdStart();
+        mPod.onAdComplete();
+        assertFalse(mPod.isRunning());
+        assertNotNull(mGaps);
+        assertEquals(2, mInventory.shown);
+        assertEquals(0, mStarted.get(0).intValue());
+        assertEquals(1, mStarted.get(1).intValue());
+    }
+
+    @Test
+    public void waitsForAdReadyWhenEmpty() throws Exception {
+        mPod.start();
+        assertEquals(0, mInventory.shown);
+        assertEquals(1, mInventory.fills);
+        mInventory.ready = 1;
+        mPod.onAdReady(true);
+        assertEquals(1, mInventory.shown);
+    }
+
+    @Test
+    public void countsFailedLoadsAsAds() throws Exception {
+        mPod.start();
+        mPod.onAdReady(false);
+        mPod.onAdReady(false);
+        assertFalse(mPod.isRunning());
+        assertNotNull(mGaps);
+        assertEquals(0, mInventory.shown);
+    }
+
+    @Test
+    public void ignoresCallbacksOnceCancelled() throws Exception {
+        mInventory.ready = 2;
+        mPod.start();
+        mPod.cancel();
+        mPod.onAdComplete();
+        mPod.onAdReady(true);
+        assertFalse(mPod.isRunning());
+        assertEquals(1, mInventory.shown);
+    }
+}
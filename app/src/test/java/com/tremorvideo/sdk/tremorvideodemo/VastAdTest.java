@@ -0,0 +1,100 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class VastAdTest {
+
+    private static final Set<String> MP4 = Collections.singleton("video/mp4");
+
+    private VastAd mAd;
+    private VastAd.MediaFile m360;
+    private VastAd.MediaFile m720;
+    private VastAd.MediaFile m1080;
+    private VastAd.MediaFile mWebm;
+
+    @Before
+    public void setUp() {
+        mAd = new VastAd();
+        mAd.durationSeconds = 30;
+        m360 = add("video/mp4", 600);
+        m720 = add("video/mp4", 1800);
+        mWebm = add("video/webm", 1500);
+        m1080 = add("video/mp4", 4000);
+    }
+
+    @Test
+    public void picksHighestBitrateThatFits() {
+        assertSame(m720, mAd.selectMediaFile(MP4, 2000));
+        assertSame(m1080, mAd.selectMediaFile(MP4, 5000));
+    }
+
+    @Test
+    public void picksLowestBitrateWhenNoneFits() {
+        assertSame(m360, mAd.selectMediaFile(MP4, 100));
+    }
+
+    @Test
+    public void picksLowestBitrateWhileBandwidthIsUnknown() {
+        assertSame(m360, mAd.selectMediaFile(MP4, 0));
+        assertSame(m360, mAd.selectMediaFile(MP4, 0, 30));
+    }
+
+    @Test
+    public void skipsTypesTheDeviceCannotDecode() {
+        Set<String> webm = new HashSet<String>(Arrays.asList("video/webm"));
+        assertSame(mWebm, mAd.selectMediaFile(webm, 5000));
+        assertNull(mAd.selectMediaFile(Collections.singleton("video/3gpp"), 5000));
+        assertSame(mWebm, mAd.selectMediaFile(null, 1700));
+    }
+
+    @Test
+    public void skipsStreamingAndMissingUrls() {
+        m1080.delivery = "streaming";
+        mWebm.url = null;
+        assertSame(m720, mAd.selectMediaFile(null, 5000));
+    }
+
+    @Test
+    public void fitsDownloadTimeBudget() {
+        // 30s at 1800kbps downloads in 18s at 3000kbps, but needs more than 10s
+        assertSame(m720, mAd.selectMediaFile(MP4, 3000, 30));
+        assertSame(m360, mAd.selectMediaFile(MP4, 3000, 10));
+        mAd.durationSeconds = 0;
+        assertSame(m720, mAd.selectMediaFile(MP4, 3000, 10));
+    }
+
+    @Test
+    public void mergesWrapperTracking() {
+        VastAd wrapper = new VastAd();
+        wrapper.impressions.add("https://t.example.com/wrapper-imp");
+        wrapper.clickTracking.add("https://t.example.com/wrapper-click");
+        wrapper.addTracking("start", "https://t.example.com/wrapper-start");
+        mAd.impressions.add("https://t.example.com/imp");
+        mAd.addTracking("start", "https://t.example.com/start");
+        mAd.mergeWrapper(wrapper);
+        assertEquals(Arrays.asList("https://t.example.com/imp", "https://t.example.com/wrapper-imp"), mAd.impressions);
+        assertEquals(Arrays.asList("https://t.example.com/wrapper-click"), mAd.clickTracking);
+        assertEquals(Arrays.asList("https://t.example.com/start", "https://t.example.com/wrapper-start"),
+                mAd.tracking.get("start"));
+    }
+
+    private VastAd.MediaFile add(String type, int bitrate) {
+        VastAd.MediaFile file = new VastAd.MediaFile();
+        file.url = "https://cdn.example.com/" + bitrate + "." + type.substring(6);
+        file.type = type;
+        file.delivery = "progressive";
+        file.bitrate = bitrate;
+        mAd.mediaFiles.add(file);
+        return file;
+    }
+}
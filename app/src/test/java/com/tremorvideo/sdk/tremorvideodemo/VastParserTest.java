@@ -0,0 +1,100 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VastParserTest {
+
+    private static final String INLINE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<VAST version=\"3.0\"><Ad id=\"ad-1\"><InLine>"
+            + "<Impression><![CDATA[https://t.example.com/imp?cb=[CACHEBUSTING]]]></Impression>"
+            + "<Impression> </Impression>"
+            + "<Creatives><Creative><Linear>"
+            + "<Duration>00:01:30.500</Duration>"
+            + "<TrackingEvents>"
+            + "<Tracking event=\"start\">https://t.example.com/start</Tracking>"
+            + "<Tracking event=\"complete\">https://t.example.com/done</Tracking>"
+            + "</TrackingEvents>"
+            + "<VideoClicks><ClickThrough>https://example.com/click</ClickThrough>"
+            + "<ClickTracking>https://t.example.com/click</ClickTracking></VideoClicks>"
+            + "<MediaFiles>"
+            + "<MediaFile delivery=\"progressive\" type=\"video/mp4\" bitrate=\"600\" width=\"640\" height=\"360\">"
+            + "https://cdn.example.com/360.mp4</MediaFile>"
+            + "<MediaFile delivery=\"streaming\" type=\"video/mp4\" bitrate=\"x\">https://cdn.example.com/hls</MediaFile>"
+            + "</MediaFiles></Linear></Creative></Creatives>"
+            + "</InLine></Ad></VAST>";
+
+    private static final String WRAPPER = "<VAST version=\"3.0\">"
+            + "<Ad id=\"w-1\"><Wrapper>"
+            + "<VASTAdTagURI><![CDATA[https://ads.example.com/vast?id=1]]></VASTAdTagURI>"
+            + "<Impression>https://t.example.com/wrapper-imp</Impression>"
+            + "</Wrapper></Ad>"
+            + "<Ad id=\"w-2\"><Wrapper><Impression>https://t.example.com/other</Impression></Wrapper></Ad>"
+            + "</VAST>";
+
+    @Test
+    public void parsesInlineAd() throws Exception {
+        List<VastAd> ads = parse(INLINE, 0);
+        assertEquals(1, ads.size());
+        VastAd ad = ads.get(0);
+        assertEquals("ad-1", ad.id);
+        assertFalse(ad.wrapper);
+        assertEquals(90, ad.durationSeconds);
+        assertEquals(Arrays.asList("https://t.example.com/imp?cb=[CACHEBUSTING]"), ad.impressions);
+        assertEquals(Arrays.asList("https://t.example.com/start"), ad.tracking.get("start"));
+        assertEquals(Arrays.asList("https://t.example.com/done"), ad.tracking.get("complete"));
+        assertEquals("https://example.com/click", ad.clickThrough);
+        assertEquals(Arrays.asList("https://t.example.com/click"), ad.clickTracking);
+        assertEquals(2, ad.mediaFiles.size());
+        VastAd.MediaFile file = ad.mediaFiles.get(0);
+        assertEquals("https://cdn.example.com/360.mp4", file.url);
+        assertEquals("video/mp4", file.type);
+        assertEquals("progressive", file.delivery);
+        assertEquals(600, file.bitrate);
+        assertEquals(640, file.width);
+        assertEquals(360, file.height);
+        assertEquals(0, ad.mediaFiles.get(1).bitrate);
+    }
+
+    @Test
+    public void parsesWrappers() throws Exception {
+        List<VastAd> ads = parse(WRAPPER, 0);
+        assertEquals(2, ads.size());
+        assertTrue(ads.get(0).wrapper);
+        assertEquals("https://ads.example.com/vast?id=1", ads.get(0).adTagUri);
+        assertEquals(Arrays.asList("https://t.example.com/wrapper-imp"), ads.get(0).impressions);
+        assertTrue(ads.get(1).wrapper);
+        assertNull(ads.get(1).adTagUri);
+    }
+
+    @Test
+    public void parsesEmptyDocument() throws Exception {
+        assertTrue(parse("<VAST version=\"3.0\"/>", 0).isEmpty());
+    }
+
+    @Test(expected = InterruptedIOException.class)
+    public void abandonsParsingAfterDeadline() throws Exception {
+        parse(INLINE, System.currentTimeMillis() - 1);
+    }
+
+    @Test
+    public void parsesDurations() {
+        assertEquals(3723, VastParser.parseDuration("01:02:03"));
+        assertEquals(15, VastParser.parseDuration("00:00:15.250"));
+        assertEquals(0, VastParser.parseDuration("15"));
+        assertEquals(0, VastParser.parseDuration("25%"));
+    }
+
+    private static List<VastAd> parse(String xml, long deadline) throws Exception {
+        return VastParser.parse(new ByteArrayInputStream(xml.getBytes("UTF-8")), "UTF-8", deadline);
+    }
+}
@@ -0,0 +1,53 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VastResolverTest {
+
+    @Test
+    public void mapsCodecsToContainerTypes() {
+        assertEquals(new HashSet<String>(Arrays.asList("video/mp4", "video/3gpp")),
+                VastResolver.containerTypes(Arrays.asList("video/avc")));
+        assertEquals(new HashSet<String>(Arrays.asList("video/webm")),
+                VastResolver.containerTypes(Arrays.asList("video/x-vnd.on2.vp9")));
+        assertEquals(new HashSet<String>(Arrays.asList("video/3gpp")),
+                VastResolver.containerTypes(Arrays.asList("video/3gpp")));
+        assertTrue(VastResolver.containerTypes(Collections.singletonList("video/x-unknown")).isEmpty());
+    }
+
+    @Test
+    public void selectsRenditionsFromDecoderTypes() {
+        // the decoders of a typical device, as MediaCodecList reports them
+        List<String> codecs = Arrays.asList("video/avc", "video/hevc", "video/mp4v-es", "video/3gpp",
+                "video/x-vnd.on2.vp8", "video/x-vnd.on2.vp9");
+        Set<String> types = VastResolver.containerTypes(codecs);
+
+        VastAd ad = new VastAd();
+        VastAd.MediaFile mp4 = add(ad, "video/mp4", 1800);
+        VastAd.MediaFile webm = add(ad, "video/webm", 1500);
+        assertSame(mp4, ad.selectMediaFile(types, 2000));
+
+        Set<String> vp8Only = VastResolver.containerTypes(Collections.singletonList("video/x-vnd.on2.vp8"));
+        assertSame(webm, ad.selectMediaFile(vp8Only, 2000));
+    }
+
+    private static VastAd.MediaFile add(VastAd ad, String type, int bitrate) {
+        VastAd.MediaFile file = new VastAd.MediaFile();
+        file.url = "https://cdn.example.com/" + bitrate;
+        file.type = type;
+        file.delivery = "progressive";
+        file.bitrate = bitrate;
+        ad.mediaFiles.add(file);
+        return file;
+    }
+}
@@ -0,0 +1,50 @@
+package com.tremorvideo.sdk.tremorvideodemo;
+
+import org.kxml2.io.KXmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Scanner;
+
+/**
+ * Pull-parses a sample inline VAST document with kXML, the parser behind Android's XmlPullParser,
+ * collecting the MediaFile and Tracking urls, and with the app's VastParser building the full model.
+ */
+@State(Scope.Benchmark)
+public class VastParsingBenchmark {
+
+    private String mPayload;
+    private byte[] mBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        mPayload = new Scanner(getClass().getResourceAsStream("/vast_inline.xml"), "UTF-8").useDelimiter("\\A").next();
+        mBytes = mPayload.getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public int pullParser() throws XmlPullParserException, IOException {
+        int urls = 0;
+        XmlPullParser parser = new KXmlParser();
+        parser.setInput(new StringReader(mPayload));
+        for (int event = parser.next(); event != XmlPullParser.END_DOCUMENT; event = parser.next()) {
+            if (event == XmlPullParser.START_TAG
+                    && ("MediaFile".equals(parser.getName()) || "Tracking".equals(parser.getName()))) {
+                urls += parser.nextText().trim().length();
+            }
+        }
+        return urls;
+    }
+
+    @Benchmark
+    public int vastParser() throws XmlPullParserException, IOException {
+        return VastParser.parse(new ByteArrayInputStream(mBytes), "UTF-8", 0).get(0).mediaFiles.size();
+    }
+}